@@ -0,0 +1,42 @@
+package benchmarks;
+
+import dealib.components.BoundsChecker;
+import dealib.components.Individual;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * BoundsCheckerBenchmark measures BoundsChecker.checkBoundsDefault over
+ * mutants with half of their genes out of the bounds. Since the check repairs
+ * the mutant, each operation first restores its genes, which is included in
+ * the measure.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class BoundsCheckerBenchmark extends ComponentBenchmark {
+
+    private double[][] mutants;
+    private Individual V;
+    private int next;
+
+    @Override
+    protected void setupComponent() {
+        mutants = new double[individuals.length][];
+        for (int i = 0; i < individuals.length; i++) {
+            mutants[i] = individuals[i].getGenotype().clone();
+            for (int k = i % 2; k < D; k += 2) {
+                mutants[i][k] *= 2;
+            }
+        }
+        V = new Individual(exe);
+    }
+
+    @Benchmark
+    public Individual checkBounds() {
+        System.arraycopy(mutants[next], 0, V.getGenotype(), 0, D);
+        next = next + 1 == individuals.length ? 0 : next + 1;
+        BoundsChecker.checkBoundsDefault(exe.getIPR_LB(), exe.getIPR_UB(), V);
+        return V;
+    }
+}
@@ -0,0 +1,161 @@
+package benchmarks;
+
+import dealib.components.Individual;
+import dealib.components.Population;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import planner.configuration.Execution;
+import planner.utils.MathTools;
+import planner.utils.TracePolicy;
+
+/**
+ * ComponentBenchmark is the base of the microbenchmarks of the components of
+ * the framework: it builds an execution and a random population of POOL
+ * individuals of dimension D, with a fixed seed, so every benchmark measures
+ * the same inputs. Each operation of a benchmark applies a component once,
+ * taking the individuals of the population in turn. The components whose
+ * cost depends on the size of the population extend
+ * PopulationComponentBenchmark instead, which parameterizes it by NP.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ComponentBenchmark {
+
+    /**
+     * Seed of the random numbers of the benchmarks.
+     */
+    protected static final long SEED = 20240601L;
+
+    /**
+     * Bounds of the genes of the individuals.
+     */
+    protected static final double LB = -100;
+    protected static final double UB = 100;
+
+    /**
+     * Size of the population taken in turn by the benchmarks not
+     * parameterized by NP.
+     */
+    protected static final int POOL = 100;
+
+    @Param({"10", "100", "1000"})
+    protected int D;
+
+    protected Execution exe;
+    protected Population population;
+    protected Individual[] individuals;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MathTools.setRandomSeed(SEED);
+        int size = populationSize();
+        exe = createExecution(D);
+        exe.setNP(size);
+        ArrayList<Individual> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Individual ind = new Individual(exe);
+            double fitness = 0;
+            for (int k = 0; k < D; k++) {
+                double gene = LB + (UB - LB) * MathTools.RND.nextDouble();
+                ind.setGene(k, gene);
+                fitness += gene * gene;
+            }
+            ind.setFitness(fitness);
+            list.add(ind);
+        }
+        population = new Population(exe, list);
+        individuals = list.toArray(new Individual[size]);
+        setupComponent();
+    }
+
+    /**
+     * Gets the size of the population built for the benchmark.
+     *
+     * @return number of individuals of the population.
+     */
+    protected int populationSize() {
+        return POOL;
+    }
+
+    /**
+     * Prepares the component measured, once the population is built.
+     */
+    protected void setupComponent() {
+    }
+
+    /**
+     * Creates an execution of dimension D with fixed F, CR and bounds, which
+     * does not store convergence traces.
+     *
+     * @param D dimension of the problem.
+     * @return the execution.
+     */
+    protected static Execution createExecution(int D) {
+        Execution exe = new Execution("benchmark");
+        TracePolicy none = TracePolicy.parse("none");
+        exe.getResults().setTracePolicies(none, none, none, none);
+        exe.setD(D);
+        exe.setF(0.5);
+        exe.setCR(0.9);
+        double[] lb = new double[D];
+        double[] ub = new double[D];
+        for (int k = 0; k < D; k++) {
+            lb[k] = LB;
+            ub[k] = UB;
+        }
+        exe.setLowerBounds(lb);
+        exe.setUpperBounds(ub);
+        return exe;
+    }
+
+    /**
+     * Creates a component given its full class name, with the constructor
+     * receiving the execution used by every component of the framework.
+     *
+     * @param <T> type of the component.
+     * @param className full name of the class of the component.
+     * @param exe configuration of the execution.
+     * @return the component.
+     */
+    @SuppressWarnings("unchecked")
+    protected static <T> T createComponent(String className, Execution exe) {
+        try {
+            return (T) Class.forName(className).getConstructor(Execution.class).newInstance(exe);
+        } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException
+                | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Component " + className + " not found.", e);
+        }
+    }
+
+    /**
+     * Gets the next individual of the population, in turn.
+     *
+     * @return an individual of the population.
+     */
+    protected Individual nextIndividual() {
+        Individual ind = individuals[next];
+        next = next + 1 == individuals.length ? 0 : next + 1;
+        return ind;
+    }
+}
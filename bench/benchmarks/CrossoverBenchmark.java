@@ -0,0 +1,40 @@
+package benchmarks;
+
+import dealib.components.Individual;
+import dealib.components.crossovers.Crossover;
+import exceptions.IncompatibleConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * CrossoverBenchmark measures the crossover of an individual with a mutant
+ * with each Crossover. The mutants are the individuals of the population in
+ * reverse order and the arithmetic crossover receives one more individual as
+ * its k vector.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class CrossoverBenchmark extends ComponentBenchmark {
+
+    @Param({"BinomialCrossover", "ExponentialCrossover", "ArithmeticCrossover"})
+    private String crossover;
+
+    private Crossover c;
+    private Individual[] auxiliar;
+    private int next;
+
+    @Override
+    protected void setupComponent() {
+        c = createComponent("dealib.components.crossovers." + crossover, exe);
+        auxiliar = new Individual[]{individuals[0]};
+    }
+
+    @Benchmark
+    public Individual cross() throws IncompatibleConfigurationException {
+        Individual V = individuals[individuals.length - 1 - next];
+        next = next + 1 == individuals.length ? 0 : next + 1;
+        return c.crossIndividuals(population, nextIndividual(), V, auxiliar);
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import exceptions.IncompatibleConfigurationException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import planner.configuration.Execution;
+import planner.utils.MathTools;
+import planner.utils.evaluators.testfunctions.TestFunction;
+
+/**
+ * FixedTestFunctionBenchmark measures the evaluation of an individual with
+ * each TestFunction defined only for a fixed dimension, so they are not
+ * parameterized by D: each one evaluates NP_FIXED individuals of its
+ * own dimension in turn.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixedTestFunctionBenchmark {
+
+    private static final int NP_FIXED = 100;
+
+    @Param({"CoranaParabolaFunction:4", "GoldsteinFunction:1", "ModifiedPenalizedShubertFunction:2",
+        "PenalizedShubertFunction:2", "ShekelFoxholesFunction:2", "SixHumpCamelFunction:2"})
+    private String function;
+
+    private TestFunction f;
+    private double[][] genotypes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setupFunction() {
+        String[] parts = function.split(":");
+        int D = Integer.parseInt(parts[1]);
+        MathTools.setRandomSeed(ComponentBenchmark.SEED);
+        Execution exe = ComponentBenchmark.createExecution(D);
+        f = ComponentBenchmark.createComponent("planner.utils.evaluators.testfunctions." + parts[0], exe);
+        genotypes = new double[NP_FIXED][D];
+        for (double[] genotype : genotypes) {
+            for (int k = 0; k < D; k++) {
+                genotype[k] = -10 + 20 * MathTools.RND.nextDouble();
+            }
+        }
+    }
+
+    @Benchmark
+    public double evaluate() throws IncompatibleConfigurationException {
+        double[] genotype = genotypes[next];
+        next = next + 1 == NP_FIXED ? 0 : next + 1;
+        return f.evaluate(genotype);
+    }
+}
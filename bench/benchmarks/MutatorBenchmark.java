@@ -0,0 +1,39 @@
+package benchmarks;
+
+import dealib.components.Individual;
+import dealib.components.mutators.Mutator;
+import exceptions.IncompatibleConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * MutatorBenchmark measures the mutation of an individual with each Mutator.
+ * Every mutator receives the best individual and two more individuals of the
+ * population as auxiliar individuals, enough for the ones needing them.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class MutatorBenchmark extends PopulationComponentBenchmark {
+
+    @Param({"Best1Mutator", "Best2Mutator", "Best3Mutator", "CurrentToBest1Mutator",
+        "CurrentToBest2Mutator", "CurrentToPBestMutator", "CurrentToRand1Mutator",
+        "Rand1Mutator", "Rand2Mutator", "Rand3Mutator", "RandToBestAndCurrent2Mutator",
+        "RandToCurrent1Mutator", "jDELSMutator"})
+    private String mutator;
+
+    private Mutator m;
+    private Individual[] auxiliar;
+
+    @Override
+    protected void setupComponent() {
+        m = createComponent("dealib.components.mutators." + mutator, exe);
+        auxiliar = new Individual[]{population.getBestIndividual(), individuals[0], individuals[NP - 1]};
+    }
+
+    @Benchmark
+    public Individual mutate() throws IncompatibleConfigurationException {
+        return m.mutateIndividual(population, nextIndividual(), auxiliar);
+    }
+}
@@ -0,0 +1,29 @@
+package benchmarks;
+
+import dealib.components.Individual;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * PopulationBenchmark measures the queries of the Population used by the
+ * mutators: the k-th best individual, as used by JADE for the pBest
+ * individual, and three random individuals distinct from the current one.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class PopulationBenchmark extends PopulationComponentBenchmark {
+
+    private int k;
+
+    @Benchmark
+    public Individual getKBestIndividual() {
+        k = k + 1 == Math.max(1, NP / 20) ? 0 : k + 1;
+        return population.getKBestIndividual(k);
+    }
+
+    @Benchmark
+    public Individual[] getNRandDistinctIndividuals() {
+        return population.getNRandDistinctIndividuals(nextIndividual(), 3);
+    }
+}
@@ -0,0 +1,24 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * PopulationComponentBenchmark is the base of the microbenchmarks of the
+ * components whose cost depends on the size of the population, such as the
+ * mutators drawing random individuals from it, which are measured with a
+ * population of NP individuals.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract class PopulationComponentBenchmark extends ComponentBenchmark {
+
+    @Param({"25", "100", "1000"})
+    protected int NP;
+
+    @Override
+    protected int populationSize() {
+        return NP;
+    }
+}
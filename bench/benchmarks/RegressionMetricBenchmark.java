@@ -0,0 +1,51 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import planner.utils.Dataset;
+import planner.utils.MathTools;
+import planner.utils.evaluators.regrmetrics.RegressionMetric;
+import planner.utils.objfunctions.LinearFunction;
+
+/**
+ * RegressionMetricBenchmark measures RegressionMetric.evaluate of an
+ * individual with each RegressionMetric, estimating with the linear function
+ * a synthetic dataset of INSTANCES instances with D - 1 attributes and a
+ * positive target, so the metrics dividing by the target are defined.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class RegressionMetricBenchmark extends ComponentBenchmark {
+
+    private static final int INSTANCES = 1000;
+
+    @Param({"MAE", "MAPE", "MRAE", "MSE", "MSPE", "RAE", "RMSE", "RMSLE", "RMSPE", "SSE"})
+    private String metric;
+
+    private RegressionMetric m;
+
+    @Override
+    protected void setupComponent() {
+        String[] attributes = new String[D];
+        for (int j = 0; j < D; j++) {
+            attributes[j] = "x" + j;
+        }
+        double[][] data = new double[INSTANCES][D];
+        for (double[] instance : data) {
+            for (int j = 0; j < D - 1; j++) {
+                instance[j] = MathTools.RND.nextDouble();
+            }
+            instance[D - 1] = 1 + MathTools.RND.nextDouble();
+        }
+        exe.setDataset(new Dataset("synthetic", "synthetic", "memory", "Synthetic dataset", attributes, data));
+        exe.setObjectiveFunction(new LinearFunction());
+        m = createComponent("planner.utils.evaluators.regrmetrics." + metric, exe);
+    }
+
+    @Benchmark
+    public double evaluate() {
+        return m.evaluate(nextIndividual().getGenotype());
+    }
+}
@@ -0,0 +1,32 @@
+package benchmarks;
+
+import dealib.components.Individual;
+import dealib.components.selectors.BinarySelector;
+import exceptions.IncompatibleConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * SelectorBenchmark measures the BinarySelector choosing between an individual
+ * and a trial individual, already evaluated.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class SelectorBenchmark extends ComponentBenchmark {
+
+    private BinarySelector selector;
+    private int next;
+
+    @Override
+    protected void setupComponent() {
+        selector = new BinarySelector(exe);
+    }
+
+    @Benchmark
+    public Individual select() throws IncompatibleConfigurationException {
+        Individual U = individuals[individuals.length - 1 - next];
+        next = next + 1 == individuals.length ? 0 : next + 1;
+        return selector.selectIndividual(nextIndividual(), U);
+    }
+}
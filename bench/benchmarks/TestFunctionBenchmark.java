@@ -0,0 +1,34 @@
+package benchmarks;
+
+import exceptions.IncompatibleConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import planner.utils.evaluators.testfunctions.TestFunction;
+
+/**
+ * TestFunctionBenchmark measures the evaluation of an individual with each
+ * TestFunction defined for any dimension. The functions defined for a fixed
+ * dimension are measured by FixedTestFunctionBenchmark.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class TestFunctionBenchmark extends ComponentBenchmark {
+
+    @Param({"AckleyFunction", "GriewankFunction", "HyperEllipsoidFunction", "QuarticFunction",
+        "RastriginFunction", "RosenbrockFunction", "SphereFunction", "StepFunction"})
+    private String function;
+
+    private TestFunction f;
+
+    @Override
+    protected void setupComponent() {
+        f = createComponent("planner.utils.evaluators.testfunctions." + function, exe);
+    }
+
+    @Benchmark
+    public double evaluate() throws IncompatibleConfigurationException {
+        return f.evaluate(nextIndividual().getGenotype());
+    }
+}
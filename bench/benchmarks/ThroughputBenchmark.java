@@ -0,0 +1,384 @@
+package benchmarks;
+
+import dealib.algorithms.Algorithm;
+import dealib.components.crossovers.BinomialCrossover;
+import dealib.components.initializers.RandInitializer;
+import dealib.components.mutators.CurrentToPBestMutator;
+import dealib.components.mutators.Rand1Mutator;
+import dealib.components.selectors.BinarySelector;
+import dealib.components.stoppingcriteria.MaxFEsStop;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import planner.configuration.Execution;
+import planner.utils.Dataset;
+import planner.utils.ExecutionResults;
+import planner.utils.MathTools;
+import planner.utils.TracePolicy;
+import planner.utils.objfunctions.LinearFunction;
+
+/**
+ * ThroughputBenchmark is a command line tool which runs the algorithms of the
+ * framework end to end over a fixed set of problems, each execution with a
+ * fixed seed, and measures for each case:
+ * <ul>
+ * <li>FEs and generations per second, the median of the repetitions.</li>
+ * <li>bytes allocated per second and per FE by the thread running the
+ * executions.</li>
+ * <li>number and total time of the garbage collections.</li>
+ * <li>mean fitness of the solutions, which must not change for the same seeds
+ * unless the behaviour of the algorithm changes.</li>
+ * </ul>
+ * The measures are written as CSV, after a comment describing the host, and
+ * can be compared with a baseline, such as the one stored in bench/baselines.
+ * The comparison fails if the fitness of a case changes or its bytes allocated
+ * per FE grow more than a tolerance, which do not depend on the machine. The
+ * cases whose FEs per second fall more than the tolerance are reported, but
+ * they only fail the comparison if it is strict and the baseline was measured
+ * in the same host.
+ *
+ * Usage: ThroughputBenchmark run output.csv [repetitions]
+ * <br>
+ * ThroughputBenchmark compare baseline.csv current.csv [tolerance [strict]]
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class ThroughputBenchmark {
+
+    private static final long SEED = 360466890598610L;
+    private static final int WARMUP = 2;
+    private static final int DEFAULT_REPETITIONS = 5;
+    private static final double DEFAULT_TOLERANCE = 0.1;
+
+    private static final String[] ALGORITHMS = {"DE", "jDE", "JADE", "SaDE", "LSGOjDE"};
+    private static final String[] TEST_FUNCTIONS = {"SphereFunction", "RastriginFunction",
+        "RosenbrockFunction", "AckleyFunction"};
+
+    private static final int D = 100;
+    private static final int NP = 100;
+    private static final int MAX_FES = 100000;
+
+    /**
+     * Synthetic regression problem: a linear model with REGRESSION_D
+     * coefficients estimating REGRESSION_INSTANCES instances.
+     */
+    private static final String REGRESSION = "Regression";
+    private static final int REGRESSION_D = 10;
+    private static final int REGRESSION_INSTANCES = 2000;
+    private static final int REGRESSION_MAX_FES = 20000;
+
+    private static final String HEADER = "CASE;ALGORITHM;PROBLEM;D;NP;MAX_FES;FES_PER_S;"
+            + "GENERATIONS_PER_S;ALLOC_MB_PER_S;ALLOC_BYTES_PER_FE;GC_COUNT;GC_MS;FITNESS";
+
+    public static void main(String[] args) {
+        try {
+            if (args.length >= 2 && args.length <= 3 && args[0].equals("run")) {
+                int repetitions = args.length == 3 ? Integer.parseInt(args[2]) : DEFAULT_REPETITIONS;
+                run(args[1], repetitions);
+            } else if (args.length >= 3 && args.length <= 5 && args[0].equals("compare")) {
+                double tolerance = args.length >= 4 ? Double.parseDouble(args[3]) : DEFAULT_TOLERANCE;
+                boolean strict = args.length == 5 && Boolean.parseBoolean(args[4]);
+                if (!compare(args[1], args[2], tolerance, strict)) {
+                    System.exit(2);
+                }
+            } else {
+                System.err.println("Usage: ThroughputBenchmark run output.csv [repetitions]");
+                System.err.println("       ThroughputBenchmark compare baseline.csv current.csv [tolerance [strict]]");
+                System.exit(1);
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("[ThroughputBenchmark]: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs every case, writing a line of CSV per case.
+     *
+     * @param output path of the CSV file.
+     * @param repetitions executions measured per case.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void run(String output, int repetitions) throws IOException {
+        List<String> problems = new ArrayList<>(Arrays.asList(TEST_FUNCTIONS));
+        problems.add(REGRESSION);
+        Dataset dataset = createDataset();
+        PrintStream console = System.out;
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            out.write("# " + InetAddress.getLocalHost().getHostName() + ", " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+                    + ", " + Runtime.getRuntime().availableProcessors() + " processors, "
+                    + System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+            out.newLine();
+            out.write(HEADER);
+            out.newLine();
+            console.println(HEADER);
+            for (String algorithm : ALGORITHMS) {
+                for (String problem : problems) {
+                    // Executions print their configuration and solution.
+                    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                    String line;
+                    try {
+                        line = runCase(algorithm, problem, dataset, repetitions);
+                    } finally {
+                        System.setOut(console);
+                    }
+                    console.println(line);
+                    out.write(line);
+                    out.newLine();
+                    out.flush();
+                }
+            }
+        }
+        console.println("Results written: " + output);
+    }
+
+    /**
+     * Runs the executions of a case in the calling thread, the first WARMUP
+     * ones without measuring them.
+     *
+     * @return the line of CSV of the case.
+     */
+    private static String runCase(String algorithm, String problem, Dataset dataset, int repetitions) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        double[] FEsPerSecond = new double[repetitions];
+        double[] generationsPerSecond = new double[repetitions];
+        long allocated = 0;
+        long nanos = 0;
+        long FEs = 0;
+        long gcCount = 0;
+        long gcTime = 0;
+        double fitness = 0;
+        int d = problem.equals(REGRESSION) ? REGRESSION_D : D;
+        int maxFEs = problem.equals(REGRESSION) ? REGRESSION_MAX_FES : MAX_FES;
+        for (int r = -WARMUP; r < repetitions; r++) {
+            Execution exe = createExecution(algorithm, problem, dataset, d, maxFEs);
+            MathTools.setRandomSeed(SEED + r);
+            long gcCount0 = gcCount();
+            long gcTime0 = gcTime();
+            long allocated0 = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            ExecutionResults results = exe.run();
+            long elapsed = System.nanoTime() - start;
+            if (r < 0) {
+                continue;
+            }
+            allocated += threads.getThreadAllocatedBytes(thread) - allocated0;
+            gcCount += gcCount() - gcCount0;
+            gcTime += gcTime() - gcTime0;
+            nanos += elapsed;
+            FEs += results.getNumFEs();
+            FEsPerSecond[r] = results.getNumFEs() * 1e9 / elapsed;
+            generationsPerSecond[r] = results.getNumGenerations() * 1e9 / elapsed;
+            fitness += results.getSolutionFitness() / repetitions;
+        }
+        return algorithm + "-" + problem + ";" + algorithm + ";" + problem + ";" + d + ";" + NP + ";"
+                + maxFEs + ";" + Math.round(median(FEsPerSecond)) + ";" + Math.round(median(generationsPerSecond)) + ";"
+                + Math.round(allocated / 1e6 / (nanos / 1e9)) + ";" + allocated / Math.max(1, FEs) + ";" + gcCount + ";" + gcTime + ";" + fitness;
+    }
+
+    /**
+     * Creates an execution of a case, with the components used by default by
+     * each algorithm and without convergence traces.
+     */
+    private static Execution createExecution(String algorithm, String problem, Dataset dataset, int d, int maxFEs) {
+        Execution exe = new Execution(algorithm + "-" + problem);
+        TracePolicy none = TracePolicy.parse("none");
+        exe.getResults().setTracePolicies(none, none, none, none);
+        exe.setAlgorithm(ComponentBenchmark.<Algorithm>createComponent("dealib.algorithms." + algorithm, exe));
+        exe.setD(d);
+        exe.setNP(NP);
+        exe.setF(0.5);
+        exe.setCR(0.5);
+        exe.setMaxStop(maxFEs);
+        exe.setStoppingCriterion(new MaxFEsStop(exe));
+        exe.setInitializer(new RandInitializer(exe));
+        exe.setMutator(algorithm.equals("JADE") ? new CurrentToPBestMutator(exe) : new Rand1Mutator(exe));
+        exe.setCrossover(new BinomialCrossover(exe));
+        exe.setSelector(new BinarySelector(exe));
+        double bound = problem.equals(REGRESSION) ? 10 : 100;
+        double[] lb = new double[d];
+        double[] ub = new double[d];
+        Arrays.fill(lb, -bound);
+        Arrays.fill(ub, bound);
+        exe.setLowerBounds(lb);
+        exe.setUpperBounds(ub);
+        if (problem.equals(REGRESSION)) {
+            exe.setDataset(dataset);
+            exe.setObjectiveFunction(new LinearFunction());
+            exe.setEvaluator(ComponentBenchmark.createComponent("planner.utils.evaluators.regrmetrics.MSE", exe));
+        } else {
+            exe.setEvaluator(ComponentBenchmark.createComponent("planner.utils.evaluators.testfunctions." + problem, exe));
+        }
+        return exe;
+    }
+
+    /**
+     * Creates the dataset of the regression problem: REGRESSION_D - 1
+     * attributes and a target computed by a linear model plus noise.
+     */
+    private static Dataset createDataset() {
+        MathTools.setRandomSeed(SEED);
+        String[] attributes = new String[REGRESSION_D];
+        for (int j = 0; j < REGRESSION_D; j++) {
+            attributes[j] = j < REGRESSION_D - 1 ? "x" + j : "y";
+        }
+        double[][] data = new double[REGRESSION_INSTANCES][REGRESSION_D];
+        for (double[] instance : data) {
+            double y = 1;
+            for (int j = 0; j < REGRESSION_D - 1; j++) {
+                instance[j] = MathTools.RND.nextDouble();
+                y += (j + 1) * instance[j];
+            }
+            instance[REGRESSION_D - 1] = y + 0.1 * MathTools.RND.nextGaussian();
+        }
+        return new Dataset("synthetic", "synthetic", "memory", "Synthetic linear regression", attributes, data);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+
+    /**
+     * Prints the change of each case of a baseline, reporting the cases whose
+     * fitness changes, whose bytes allocated per FE grow more than the
+     * tolerance and whose FEs per second fall more than the tolerance.
+     *
+     * @param baseline path of the CSV of the baseline.
+     * @param current path of the CSV to compare.
+     * @param tolerance relative change of the measures allowed.
+     * @param strict TRUE if a fall of the FEs per second fails the comparison
+     * when the baseline was measured in the same host.
+     * @return TRUE if no case fails, FALSE otherwise.
+     * @throws IOException if a file cannot be read.
+     */
+    private static boolean compare(String baseline, String current, double tolerance, boolean strict) throws IOException {
+        Map<String, String[]> base = readResults(baseline);
+        Map<String, String[]> cur = readResults(current);
+        String host = readHost(current);
+        boolean sameHost = host != null && host.equals(readHost(baseline));
+        if (strict && !sameHost) {
+            System.out.println("The baseline was not measured in this host, FEs/s are not compared strictly.");
+        }
+        int[] columns = {6, 7, 8, 9, 11};
+        System.out.println("CASE;FES_PER_S;GENERATIONS_PER_S;ALLOC_MB_PER_S;ALLOC_BYTES_PER_FE;GC_MS;FITNESS;STATUS");
+        int failures = 0;
+        int slower = 0;
+        for (Map.Entry<String, String[]> entry : base.entrySet()) {
+            String[] b = entry.getValue();
+            String[] c = cur.get(entry.getKey());
+            if (c == null) {
+                System.out.println(entry.getKey() + ";;;;;;;MISSING");
+                continue;
+            }
+            StringBuilder line = new StringBuilder(entry.getKey());
+            for (int column : columns) {
+                line.append(';').append(change(Double.parseDouble(b[column]), Double.parseDouble(c[column])));
+            }
+            double fitnessBase = Double.parseDouble(b[12]);
+            double fitness = Double.parseDouble(c[12]);
+            boolean sameFitness = Math.abs(fitness - fitnessBase) <= 1e-9 * Math.max(1.0, Math.abs(fitnessBase));
+            line.append(';').append(sameFitness ? "=" : fitnessBase + " -> " + fitness);
+            boolean moreAllocation = Double.parseDouble(c[9]) > (1 + tolerance) * Double.parseDouble(b[9]);
+            boolean slowerCase = Double.parseDouble(c[6]) < (1 - tolerance) * Double.parseDouble(b[6]);
+            String status;
+            if (!sameFitness) {
+                status = "FITNESS CHANGED";
+                failures++;
+            } else if (moreAllocation) {
+                status = "MORE ALLOCATION";
+                failures++;
+            } else if (slowerCase) {
+                status = "SLOWER";
+                slower++;
+            } else {
+                status = "OK";
+            }
+            line.append(';').append(status);
+            System.out.println(line);
+        }
+        for (String key : cur.keySet()) {
+            if (!base.containsKey(key)) {
+                System.out.println(key + ";;;;;;;NEW");
+            }
+        }
+        System.out.println(failures + " cases with changed fitness or more than " + Math.round(100 * tolerance)
+                + "% more bytes per FE, " + slower + " cases with more than " + Math.round(100 * tolerance) + "% less FEs/s.");
+        return failures == 0 && (slower == 0 || !strict || !sameHost);
+    }
+
+    /**
+     * Reads the description of the host written in the first line of the
+     * results.
+     *
+     * @param path path of the CSV of the results.
+     * @return description of the host, null if the results have none.
+     * @throws IOException if the file cannot be read.
+     */
+    private static String readHost(String path) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line = in.readLine();
+            return line != null && line.startsWith("#") ? line : null;
+        }
+    }
+
+    /**
+     * Formats the change between two measures as a percentage.
+     */
+    private static String change(double base, double current) {
+        if (base == 0) {
+            return current == 0 ? "+0%" : "new";
+        }
+        long percent = Math.round(100 * (current - base) / base);
+        return (percent >= 0 ? "+" : "") + percent + "%";
+    }
+
+    private static Map<String, String[]> readResults(String path) throws IOException {
+        Map<String, String[]> results = new LinkedHashMap<>();
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("CASE;")) {
+                    continue;
+                }
+                String[] fields = line.split(";");
+                results.put(fields[0], fields);
+            }
+        }
+        return results;
+    }
+}
@@ -7,7 +7,13 @@ import dealib.components.mutators.*;
 import dealib.components.crossovers.*;
 import dealib.components.selectors.*;
 import dealib.components.stoppingcriteria.StoppingCriterion;
+import dealib.components.surrogates.Surrogate;
 import exceptions.IncompatibleConfigurationException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import planner.utils.PhaseTimer;
+import static planner.utils.MathTools.RND;
 
 /**
  * Algorithm is an abstract class representing the basic scheme of an algorithm
@@ -90,6 +96,17 @@ public abstract class Algorithm {
      */
     protected BoundsChecker checker;
 
+    /**
+     * Timer of the phases of the loop of the Algorithm, see PhaseTimer.
+     */
+    protected PhaseTimer timer;
+
+    /**
+     * TRUE if the state of the Algorithm was restored from a snapshot, so the
+     * population must not be initialized.
+     */
+    private boolean restored;
+
     /**
      * Constructor of an Algorithm given the name, the publication reference and
      * the current configuration of the execution.
@@ -106,7 +123,9 @@ public abstract class Algorithm {
 
     /**
      * Runs an execution of the algorithm after an initialization process of its
-     * components.
+     * components. If the evaluator approximated the fitness during the
+     * evolution, the final population is evaluated again for choosing the
+     * solution.
      *
      * @return Individual representing the solution of the optimization process.
      * @throws IncompatibleConfigurationException if an incompatibility is
@@ -114,7 +133,129 @@ public abstract class Algorithm {
      */
     public Individual run() throws IncompatibleConfigurationException {
         initAlgorithmParams();
-        return runAlgorithm();
+        timer = exe.getPhaseTimer();
+        SnapshotStore snapshots = exe.getSnapshots();
+        restored = snapshots != null && snapshots.restore(this);
+        Individual solution = runAlgorithm();
+        if (exe.getEvaluator().finalEvaluation()) {
+            p.reevaluatePopulation(exe.getEvaluator());
+            solution = p.getBestIndividual();
+        }
+        if (snapshots != null) {
+            snapshots.finish();
+        }
+        return solution;
+    }
+
+    /**
+     * Checks if the state of the Algorithm was restored from a snapshot
+     * instead of initializing its population.
+     *
+     * @return TRUE if the state was restored, FALSE otherwise.
+     */
+    protected boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * Called by the Algorithm at the end of each generation, when its state
+     * is consistent, for taking a snapshot if they are configured.
+     */
+    protected void checkpoint() {
+        SnapshotStore snapshots = exe.getSnapshots();
+        if (snapshots != null) {
+            snapshots.checkpoint(this, p.getCurrentG());
+        }
+    }
+
+    /**
+     * Writes the state needed for resuming the Algorithm at the end of a
+     * generation: the population and the current F and CR. Algorithms with
+     * their own state must extend it, calling this method first.
+     *
+     * @param out destination of the state.
+     * @throws IOException if the state cannot be written.
+     */
+    protected void writeState(DataOutput out) throws IOException {
+        out.writeDouble(exe.getF());
+        out.writeDouble(exe.getCR());
+        p.write(out);
+    }
+
+    /**
+     * Replaces the state of the Algorithm, already initialized, with a state
+     * written by writeState.
+     *
+     * @param in source of the state.
+     * @throws IOException if the state cannot be read.
+     */
+    protected void readState(DataInput in) throws IOException {
+        exe.setF(in.readDouble());
+        exe.setCR(in.readDouble());
+        p.read(in);
+    }
+
+    /**
+     * Writes an array of real values.
+     *
+     * @param out destination of the array.
+     * @param values the array.
+     * @throws IOException if the array cannot be written.
+     */
+    protected static void writeArray(DataOutput out, double[] values) throws IOException {
+        out.writeInt(values.length);
+        for (double v : values) {
+            out.writeDouble(v);
+        }
+    }
+
+    /**
+     * Reads an array of real values written by writeArray.
+     *
+     * @param in source of the array.
+     * @return the array.
+     * @throws IOException if the array cannot be read.
+     */
+    protected static double[] readArray(DataInput in) throws IOException {
+        double[] values = new double[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    /**
+     * Evaluates the trial individual U. If a surrogate is configured and it
+     * predicts that U clearly loses against the target individual X, U is
+     * discarded without evaluating it: it gets the worst possible fitness so
+     * the selector keeps X. A few rejected trial individuals are evaluated
+     * anyway for checking and adapting the surrogate.
+     *
+     * @throws IncompatibleConfigurationException if an incompatibility is
+     * detected.
+     */
+    protected void evaluateTrial() throws IncompatibleConfigurationException {
+        Surrogate surrogate = exe.getSurrogate();
+        if (surrogate == null) {
+            U.updateFitness();
+            return;
+        }
+
+        boolean rejected = Double.isFinite(X.getFitness())
+                && surrogate.rejects(U.getGenotype(), X.getFitness());
+        if (rejected && RND.nextDouble() >= surrogate.getCheckRate()) {
+            U.updateFitness(Double.POSITIVE_INFINITY, false);
+            exe.getResults().incrSurrogateRejections();
+            return;
+        }
+
+        U.updateFitness();
+        surrogate.update(U.getGenotype(), U.getFitness());
+        if (rejected) {
+            boolean wrong = U.getFitness() <= X.getFitness();
+            surrogate.feedback(wrong);
+            exe.getResults().incrSurrogateChecks(wrong);
+        }
     }
 
     /**
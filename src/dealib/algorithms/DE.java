@@ -2,6 +2,7 @@ package dealib.algorithms;
 
 import dealib.components.BoundsChecker;
 import planner.configuration.Execution;
+import planner.utils.PhaseTimer;
 import dealib.components.Individual;
 import dealib.components.Population;
 import exceptions.IncompatibleConfigurationException;
@@ -34,24 +35,37 @@ public class DE extends Algorithm {
     @Override
     public Individual runAlgorithm() throws IncompatibleConfigurationException {
 
-        initializer.initializePopulation(p);
-        p.evaluatePopulation(exe.getEvaluator());
+        if (!isRestored()) {
+            initializer.initializePopulation(p);
+            p.evaluatePopulation(exe.getEvaluator());
+        }
 
         while (!stopCriterion.stops()) {
             for (int i = 0; i < p.getNP(); i++) {
+                long t = timer.start();
                 X = p.getIndividual(i);
 
                 V = mutator.mutateIndividual(p, X);
+                t = timer.lap(PhaseTimer.MUTATION, t);
                 BoundsChecker.checkBoundsDefault(exe.getIPR_LB(), exe.getIPR_UB(), V);
+                t = timer.lap(PhaseTimer.BOUNDS, t);
 
                 U = crossover.crossIndividuals(p, X, V);
+                t = timer.lap(PhaseTimer.CROSSOVER, t);
                 BoundsChecker.checkBoundsDefault(exe.getIPR_LB(), exe.getIPR_UB(), U);
-                U.updateFitness();
+                t = timer.lap(PhaseTimer.BOUNDS, t);
+                evaluateTrial();
+                t = timer.lap(PhaseTimer.EVALUATION, t);
 
                 S = selector.selectIndividual(X, U);
+                t = timer.lap(PhaseTimer.SELECTION, t);
                 p.replaceIndividual(i, S);
+                timer.lap(PhaseTimer.BOOKKEEPING, t);
             }
+            long t = timer.startGeneration();
             p.incrPopulationG();
+            checkpoint();
+            timer.lap(PhaseTimer.BOOKKEEPING, t);
         }
         return p.getBestIndividual();
     }
@@ -3,10 +3,14 @@ package dealib.algorithms;
 import dealib.components.Individual;
 import dealib.components.Population;
 import exceptions.IncompatibleConfigurationException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import planner.configuration.Execution;
 import planner.utils.MathTools;
+import planner.utils.PhaseTimer;
 import static planner.utils.MathTools.RND;
 
 /**
@@ -89,38 +93,51 @@ public class JADE extends Algorithm {
     @Override
     public Individual runAlgorithm() throws IncompatibleConfigurationException {
 
-        initializer.initializePopulation(p);
-        p.evaluatePopulation(exe.getEvaluator());
+        if (!isRestored()) {
+            initializer.initializePopulation(p);
+            p.evaluatePopulation(exe.getEvaluator());
+        }
 
         while (!stopCriterion.stops()) {
             for (int i = 0; i < p.getNP(); i++) {
+                long t = timer.start();
                 X = p.getIndividual(i);
 
                 updateF(i);
                 updateCR(i);
+                t = timer.lap(PhaseTimer.BOOKKEEPING, t);
                 V = mutator.mutateIndividual(p, X, getJADEIndividuals());
+                t = timer.lap(PhaseTimer.MUTATION, t);
                 checker.checkBounds(exe.getIPR_LB(), exe.getIPR_UB(), V);
+                t = timer.lap(PhaseTimer.BOUNDS, t);
 
                 U = crossover.crossIndividuals(p, X, V);
+                t = timer.lap(PhaseTimer.CROSSOVER, t);
                 checker.checkBounds(exe.getIPR_LB(), exe.getIPR_UB(), U);
-                U.updateFitness();
+                t = timer.lap(PhaseTimer.BOUNDS, t);
+                evaluateTrial();
+                t = timer.lap(PhaseTimer.EVALUATION, t);
 
                 S = selector.selectIndividual(X, U);
+                t = timer.lap(PhaseTimer.SELECTION, t);
                 if (S.equals(U)) {
                     A.add(X);
                     Scr.add(CRi[i]);
                     Sf.add(Fi[i]);
                 }
                 p.replaceIndividual(i, S);
-
+                timer.lap(PhaseTimer.BOOKKEEPING, t);
             }
 
+            long t = timer.startGeneration();
             removeFromArchive();
             updateMuF();
             updateMuCR();
             p.incrPopulationG();
             Scr.clear();
             Sf.clear();
+            checkpoint();
+            timer.lap(PhaseTimer.BOOKKEEPING, t);
         }
 
         return p.getBestIndividual();
@@ -251,7 +268,7 @@ public class JADE extends Algorithm {
         individuals[1] = R1;
 
         // R2 Individual
-        HashSet<Individual> PUA = new HashSet();
+        LinkedHashSet<Individual> PUA = new LinkedHashSet<>();
         PUA.addAll(p.getAllIndividuals());
         PUA.addAll(A);
         Individual R2;
@@ -262,4 +279,38 @@ public class JADE extends Algorithm {
 
         return individuals;
     }
+
+    /**
+     * Writes the state of JADE: the population, the F and CR values of each
+     * individual, muF, muCR and the archive.
+     *
+     * @param out destination of the state.
+     * @throws IOException if the state cannot be written.
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        writeArray(out, Fi);
+        writeArray(out, CRi);
+        out.writeDouble(muF);
+        out.writeDouble(muCR);
+        out.writeInt(A.size());
+        for (Individual ind : A) {
+            ind.write(out);
+        }
+    }
+
+    @Override
+    protected void readState(DataInput in) throws IOException {
+        super.readState(in);
+        Fi = readArray(in);
+        CRi = readArray(in);
+        muF = in.readDouble();
+        muCR = in.readDouble();
+        A.clear();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            A.add(Individual.read(exe, in));
+        }
+    }
 }
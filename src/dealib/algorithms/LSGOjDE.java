@@ -6,7 +6,11 @@ import dealib.components.mutators.CurrentToBest1Mutator;
 import dealib.components.mutators.Mutator;
 import dealib.components.mutators.Rand1Mutator;
 import dealib.components.mutators.jDELSMutator;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import planner.configuration.Execution;
+import planner.utils.PhaseTimer;
 import exceptions.IncompatibleConfigurationException;
 import static planner.utils.MathTools.RND;
 
@@ -120,6 +124,11 @@ public class LSGOjDE extends Algorithm {
      */
     private boolean localSearchUsed;
 
+    /**
+     * Number of iterations run, each one evolving one individual.
+     */
+    private int it;
+
     /**
      * Constructor of LSGOjDE algorithm.
      *
@@ -139,12 +148,14 @@ public class LSGOjDE extends Algorithm {
     @Override
     public Individual runAlgorithm() throws IncompatibleConfigurationException {
 
-        initializer.initializePopulation(p);
+        if (!isRestored()) {
+            initializer.initializePopulation(p);
+        }
         p.setActiveSubPopulations(true);
 
         int i;
-        int it = 0;
         while (!stopCriterion.stops()) {
+            long t = timer.start();
             i = it++ % p.getNP();
             subSize = Math.min(p.getNP(), 200);
 
@@ -163,13 +174,19 @@ public class LSGOjDE extends Algorithm {
             } else {
                 strategyJRAND(i);
             }
+            t = timer.lap(PhaseTimer.MUTATION, t);
             checker.checkBounds(exe.getIPR_LB(), exe.getIPR_UB(), V);
+            t = timer.lap(PhaseTimer.BOUNDS, t);
 
             U = crossover.crossIndividuals(p, X, V);
+            t = timer.lap(PhaseTimer.CROSSOVER, t);
             checker.checkBounds(exe.getIPR_LB(), exe.getIPR_UB(), U);
-            U.updateFitness();
+            t = timer.lap(PhaseTimer.BOUNDS, t);
+            evaluateTrial();
+            t = timer.lap(PhaseTimer.EVALUATION, t);
 
             S = selector.selectIndividual(X, U);
+            t = timer.lap(PhaseTimer.SELECTION, t);
 
             p.replaceIndividual(i, S);
 
@@ -188,7 +205,9 @@ public class LSGOjDE extends Algorithm {
 
             if (it % p.getNP() == 0) {
                 p.incrPopulationG();
+                checkpoint();
             }
+            timer.lap(PhaseTimer.BOOKKEEPING, t);
         }
         return p.getBestIndividual();
     }
@@ -255,6 +274,7 @@ public class LSGOjDE extends Algorithm {
         }
         successLastLocalSearch = false;
         localSearchUsed = false;
+        it = 0;
 
     }
 
@@ -361,4 +381,33 @@ public class LSGOjDE extends Algorithm {
         V = mutators[2].mutateIndividual(p, X);
     }
 
+    /**
+     * Writes the state of LSGOjDE: the population, the number of iterations,
+     * the F and CR values of each individual and the state of the local
+     * search.
+     *
+     * @param out destination of the state.
+     * @throws IOException if the state cannot be written.
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        out.writeInt(it);
+        writeArray(out, Fi);
+        writeArray(out, CRi);
+        lsr.write(out);
+        out.writeBoolean(successLastLocalSearch);
+        out.writeBoolean(localSearchUsed);
+    }
+
+    @Override
+    protected void readState(DataInput in) throws IOException {
+        super.readState(in);
+        it = in.readInt();
+        Fi = readArray(in);
+        CRi = readArray(in);
+        lsr = Individual.read(exe, in);
+        successLastLocalSearch = in.readBoolean();
+        localSearchUsed = in.readBoolean();
+    }
 }
@@ -4,8 +4,12 @@ import dealib.components.Individual;
 import dealib.components.Population;
 import dealib.components.mutators.*;
 import exceptions.IncompatibleConfigurationException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import planner.configuration.Execution;
 import planner.utils.MathTools;
+import planner.utils.PhaseTimer;
 import static planner.utils.MathTools.RND;
 
 /**
@@ -102,10 +106,13 @@ public class SaDE extends Algorithm {
     @Override
     public Individual runAlgorithm() throws IncompatibleConfigurationException {
 
-        initializer.initializePopulation(p);
-        p.evaluatePopulation(exe.getEvaluator());
+        if (!isRestored()) {
+            initializer.initializePopulation(p);
+            p.evaluatePopulation(exe.getEvaluator());
+        }
         
         while (!stopCriterion.stops()) {
+            long t = timer.startGeneration();
             /**
              * Step 3.1. Calculate strategy probability p_k,G and update the the
              * Success and Failure Memory.
@@ -153,18 +160,26 @@ public class SaDE extends Algorithm {
              * Step 3.4. Randomly reinitialize the trial vector U_k_i,G within
              * the search space if any variable is outside its boundaries.
              */
+            timer.lap(PhaseTimer.BOOKKEEPING, t);
             for (int i = 0; i < p.getNP(); i++) {
+                t = timer.start();
                 X = p.getIndividual(i);
-                applyStrategy(chosenStrategy[i], chosenCR[i], chosenF[i]);
-                U.updateFitness();
+                t = applyStrategy(chosenStrategy[i], chosenCR[i], chosenF[i], t);
+                evaluateTrial();
+                t = timer.lap(PhaseTimer.EVALUATION, t);
                 /**
                  * Step 3.5. Selection:
                  */
                 S = selector.selectIndividual(X, U);
+                t = timer.lap(PhaseTimer.SELECTION, t);
                 p.replaceIndividual(i, S);
                 updateMemories(chosenStrategy[i], chosenCR[i]);
+                timer.lap(PhaseTimer.BOOKKEEPING, t);
             }
+            t = timer.startGeneration();
             p.incrPopulationG();
+            checkpoint();
+            timer.lap(PhaseTimer.BOOKKEEPING, t);
         }
         return p.getBestIndividual();
     }
@@ -269,15 +284,18 @@ public class SaDE extends Algorithm {
         return chosenK;
     }
 
-    private void applyStrategy(int k, double CRi, double Fi) throws IncompatibleConfigurationException {
+    private long applyStrategy(int k, double CRi, double Fi, long t) throws IncompatibleConfigurationException {
         exe.setCR(CRi);
         exe.setF(Fi);
         V = mutators[k].mutateIndividual(p, X);
+        t = timer.lap(PhaseTimer.MUTATION, t);
         if (k != 3) {
             U = crossover.crossIndividuals(p, X, V);
+            t = timer.lap(PhaseTimer.CROSSOVER, t);
         } else {
             U = V;
         }
+        return t;
     }
 
     /**
@@ -301,4 +319,37 @@ public class SaDE extends Algorithm {
         }
         memoryPointer = (memoryPointer + 1) % LP;
     }
+
+    /**
+     * Writes the state of SaDE: the population, the probabilities of the
+     * strategies, the CR means and the success, failure and CR memories.
+     *
+     * @param out destination of the state.
+     * @throws IOException if the state cannot be written.
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        writeArray(out, pK);
+        writeArray(out, CRmk);
+        for (double[][] memory : new double[][][]{successMemory, failureMemory, CRMemory}) {
+            for (double[] row : memory) {
+                writeArray(out, row);
+            }
+        }
+        out.writeInt(memoryPointer);
+    }
+
+    @Override
+    protected void readState(DataInput in) throws IOException {
+        super.readState(in);
+        pK = readArray(in);
+        CRmk = readArray(in);
+        for (double[][] memory : new double[][][]{successMemory, failureMemory, CRMemory}) {
+            for (int i = 0; i < memory.length; i++) {
+                memory[i] = readArray(in);
+            }
+        }
+        memoryPointer = in.readInt();
+    }
 }
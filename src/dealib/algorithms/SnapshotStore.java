@@ -0,0 +1,246 @@
+package dealib.algorithms;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import planner.utils.BinaryTraceFormat;
+import planner.utils.ExecutionResults;
+import planner.utils.MathTools;
+import planner.utils.ThreadRandom;
+import planner.utils.Trace;
+
+/**
+ * SnapshotStore keeps the latest snapshot of the state of an Algorithm in a
+ * binary file, so a long execution can be resumed after being interrupted. A
+ * snapshot holds the results of the execution so far, their traces, the state
+ * of the random object of the thread running it and the state written by the
+ * Algorithm, and it ends with the CRC32 of its content. Snapshots
+ * are taken at the end of a generation every given number of generations. The
+ * thread of the execution only serializes the state whose size does not
+ * depend on the length of the execution, into one of two reused buffers, and
+ * copies the observations added to the traces since the previous snapshot. A
+ * background thread keeps a copy of the traces up to date with those
+ * observations and writes the snapshot to the file, replacing the previous
+ * one atomically. If both buffers are still waiting to be written, the
+ * snapshot is skipped instead of waiting.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class SnapshotStore {
+
+    /**
+     * Magic number of the snapshots, changed with their layout or the layout
+     * of the results so snapshots of older versions are not restored.
+     */
+    private static final int MAGIC = 0x44454656;
+
+    /**
+     * Thread writing the snapshots of every execution.
+     */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SnapshotWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path path;
+    private final long hash;
+    private final int period;
+
+    private final ByteArrayOutputStream[] buffers;
+    private final Future<?>[] pending;
+    private int current;
+
+    /**
+     * Copy of the traces of the results as of the latest snapshot, only used
+     * by the background thread once the execution has started.
+     */
+    private final Trace[] traces;
+
+    /**
+     * Constructor given the file of the snapshots.
+     *
+     * @param path path of the file of the snapshots.
+     * @param hash hash of the configuration of the execution, a snapshot with
+     * a different hash is not restored.
+     * @param period number of generations between snapshots.
+     */
+    public SnapshotStore(String path, long hash, int period) {
+        this.path = Paths.get(path);
+        this.hash = hash;
+        this.period = period;
+        buffers = new ByteArrayOutputStream[]{new ByteArrayOutputStream(), new ByteArrayOutputStream()};
+        pending = new Future<?>[2];
+        current = 0;
+        traces = new Trace[]{new Trace(), new Trace(), new Trace(), new Trace()};
+    }
+
+    /**
+     * Restores the latest snapshot, if there is a valid one for this
+     * configuration.
+     *
+     * @param algorithm the Algorithm, already initialized.
+     * @return TRUE if the state was restored, FALSE if the Algorithm must
+     * start from the beginning.
+     */
+    boolean restore(Algorithm algorithm) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length < 2 * Long.BYTES) {
+                return false;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - Long.BYTES);
+            if (crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Long.BYTES, Long.BYTES).getLong()) {
+                System.err.println("[SnapshotStore::restore]: corrupted snapshot " + path);
+                return false;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - Long.BYTES));
+            if (in.readInt() != MAGIC || in.readLong() != hash) {
+                return false;
+            }
+            ExecutionResults results = algorithm.exe.getResults();
+            results.flushTelemetry();
+            results.readState(in);
+            Trace[] restored = results.getTraces();
+            for (int k = 0; k < restored.length; k++) {
+                restored[k].clear();
+                BinaryTraceFormat.readTrace(in, restored[k]);
+                traces[k].clear();
+                restored[k].takeTail(traces[k]);
+            }
+            ((ThreadRandom) MathTools.RND).readState(in);
+            algorithm.readState(in);
+            System.out.println("Execution " + algorithm.exe.getEXECUTION_ID() + " resumed from " + path);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[SnapshotStore::restore]: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Takes a snapshot if the generation is a multiple of the period.
+     *
+     * @param algorithm the Algorithm, at the end of a generation.
+     * @param generation current generation.
+     */
+    void checkpoint(Algorithm algorithm, int generation) {
+        if (period <= 0 || generation % period != 0
+                || (pending[current] != null && !pending[current].isDone())) {
+            return;
+        }
+        ByteArrayOutputStream buffer = buffers[current];
+        buffer.reset();
+        ExecutionResults results = algorithm.exe.getResults();
+        int split;
+        try {
+            DataOutputStream out = new DataOutputStream(buffer);
+            results.flushTelemetry();
+            results.writeState(out);
+            out.flush();
+            split = buffer.size();
+            ((ThreadRandom) MathTools.RND).writeState(out);
+            algorithm.writeState(out);
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("[SnapshotStore::checkpoint]: " + e.getMessage());
+            return;
+        }
+        Trace[] live = results.getTraces();
+        int[] from = new int[live.length];
+        Trace[] tails = new Trace[live.length];
+        for (int k = 0; k < live.length; k++) {
+            tails[k] = new Trace();
+            from[k] = live[k].takeTail(tails[k]);
+        }
+        pending[current] = WRITER.submit(() -> write(buffer, split, from, tails));
+        current ^= 1;
+    }
+
+    /**
+     * Brings the copy of the traces up to date and writes the snapshot, run
+     * by the background thread.
+     *
+     * @param buffer state serialized by the thread of the execution.
+     * @param split length of the state of the results in the buffer, which
+     * are followed by the traces in the snapshot.
+     * @param from index of the first observation of each tail.
+     * @param tails observations added to each trace since the previous
+     * snapshot.
+     */
+    private void write(ByteArrayOutputStream buffer, int split, int[] from, Trace[] tails) {
+        for (int k = 0; k < traces.length; k++) {
+            traces[k].truncate(from[k]);
+            traces[k].addAll(tails[k]);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(file), crc));
+            out.writeInt(MAGIC);
+            out.writeLong(hash);
+            byte[] state = buffer.toByteArray();
+            out.write(state, 0, split);
+            for (Trace trace : traces) {
+                BinaryTraceFormat.writeTrace(trace, out);
+            }
+            out.write(state, split, state.length - split);
+            out.flush();
+            DataOutputStream end = new DataOutputStream(file);
+            end.writeLong(crc.getValue());
+            end.flush();
+            file.getFD().sync();
+        } catch (IOException e) {
+            System.err.println("[SnapshotStore::write]: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[SnapshotStore::write]: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Discards the snapshots once the execution has finished, waiting for the
+     * pending writes.
+     */
+    void finish() {
+        Future<?> last = WRITER.submit(() -> {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                System.err.println("[SnapshotStore::finish]: " + e.getMessage());
+            }
+        });
+        try {
+            last.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("[SnapshotStore::finish]: " + e.getCause());
+        }
+    }
+}
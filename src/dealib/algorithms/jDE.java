@@ -4,7 +4,11 @@ import dealib.components.BoundsChecker;
 import dealib.components.Individual;
 import dealib.components.Population;
 import exceptions.IncompatibleConfigurationException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import planner.configuration.Execution;
+import planner.utils.PhaseTimer;
 import static planner.utils.MathTools.RND;
 
 /**
@@ -67,26 +71,41 @@ public class jDE extends Algorithm {
     @Override
     public Individual runAlgorithm() throws IncompatibleConfigurationException {
 
-        initializer.initializePopulation(p);
-        p.evaluatePopulation(exe.getEvaluator());
+        if (!isRestored()) {
+            initializer.initializePopulation(p);
+            p.evaluatePopulation(exe.getEvaluator());
+        }
         
         while (!stopCriterion.stops()) {
             for (int i = 0; i < exe.getNP(); i++) {
+                long t = timer.start();
                 X = p.getIndividual(i);
 
                 updateF(i);
+                t = timer.lap(PhaseTimer.BOOKKEEPING, t);
                 V = mutator.mutateIndividual(p, X);
+                t = timer.lap(PhaseTimer.MUTATION, t);
                 BoundsChecker.checkBoundsDefault(exe.getIPR_LB(), exe.getIPR_UB(), V);
+                t = timer.lap(PhaseTimer.BOUNDS, t);
 
                 updateCR(i);
+                t = timer.lap(PhaseTimer.BOOKKEEPING, t);
                 U = crossover.crossIndividuals(p, X, V);
+                t = timer.lap(PhaseTimer.CROSSOVER, t);
                 BoundsChecker.checkBoundsDefault(exe.getIPR_LB(), exe.getIPR_UB(), U);
-                U.updateFitness();
+                t = timer.lap(PhaseTimer.BOUNDS, t);
+                evaluateTrial();
+                t = timer.lap(PhaseTimer.EVALUATION, t);
 
                 S = selector.selectIndividual(X, U);
+                t = timer.lap(PhaseTimer.SELECTION, t);
                 p.replaceIndividual(i, S);
+                timer.lap(PhaseTimer.BOOKKEEPING, t);
             }
+            long t = timer.startGeneration();
             p.incrPopulationG();
+            checkpoint();
+            timer.lap(PhaseTimer.BOOKKEEPING, t);
         }
 
         return p.getBestIndividual();
@@ -161,4 +180,24 @@ public class jDE extends Algorithm {
         return CRi[i];
     }
 
+    /**
+     * Writes the state of jDE: the population and the F and CR values of each
+     * individual.
+     *
+     * @param out destination of the state.
+     * @throws IOException if the state cannot be written.
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        writeArray(out, Fi);
+        writeArray(out, CRi);
+    }
+
+    @Override
+    protected void readState(DataInput in) throws IOException {
+        super.readState(in);
+        Fi = readArray(in);
+        CRi = readArray(in);
+    }
 }
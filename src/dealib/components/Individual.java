@@ -1,6 +1,9 @@
 package dealib.components;
 
 import exceptions.IncompatibleConfigurationException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import planner.configuration.Execution;
 import planner.utils.PrintingTools;
 
@@ -173,10 +176,63 @@ public class Individual implements Comparable {
      */
     public double updateFitness() throws IncompatibleConfigurationException {
         this.fitness = this.exe.getEvaluator().evaluate(this.genotype);
-        exe.incrFEs();
+        if (exe.getEvaluator().isCountedEvaluation(0)) {
+            exe.incrFEs();
+        }
+        exe.getResults().updateBestFitness(this.fitness);
         return this.fitness;
     }
 
+    /**
+     * Updates fitness with a value already computed by the evaluator
+     * configured in the current execution, for example when the whole
+     * population is evaluated at once.
+     *
+     * @param fitness new value for fitness.
+     * @param counted TRUE if the evaluation counts as a fitness evaluation,
+     * FALSE otherwise.
+     * @return the new value for fitness.
+     */
+    public double updateFitness(double fitness, boolean counted) {
+        this.fitness = fitness;
+        if (counted) {
+            exe.incrFEs();
+        }
+        exe.getResults().updateBestFitness(this.fitness);
+        return this.fitness;
+    }
+
+    /**
+     * Writes the generation, the fitness and the genotype of the Individual.
+     *
+     * @param out destination of the Individual.
+     * @throws IOException if the Individual cannot be written.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(G);
+        out.writeDouble(fitness);
+        for (double gene : genotype) {
+            out.writeDouble(gene);
+        }
+    }
+
+    /**
+     * Reads an Individual written by write.
+     *
+     * @param exe configuration of the current execution.
+     * @param in source of the Individual.
+     * @return the Individual.
+     * @throws IOException if the Individual cannot be read.
+     */
+    public static Individual read(Execution exe, DataInput in) throws IOException {
+        Individual ind = new Individual(exe, in.readInt());
+        ind.fitness = in.readDouble();
+        for (int i = 0; i < ind.genotype.length; i++) {
+            ind.genotype[i] = in.readDouble();
+        }
+        return ind;
+    }
+
     /**
      * Gets a string representing the visualization by console of the
      * Individual.
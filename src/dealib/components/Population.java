@@ -1,6 +1,9 @@
 package dealib.components;
 
 import exceptions.IncompatibleConfigurationException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import planner.configuration.Execution;
@@ -190,6 +193,22 @@ public class Population {
         return population.get(iBest);
     }
 
+    /**
+     * Gets the difference between the worst and the best fitness of the
+     * individuals of the population.
+     *
+     * @return the spread of the fitness.
+     */
+    public double getFitnessSpread() {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (Individual ind : population) {
+            min = Math.min(min, ind.getFitness());
+            max = Math.max(max, ind.getFitness());
+        }
+        return max - min;
+    }
+
     /**
      * Gets the lower bound of the active subpopulation if mechanism for
      * subpopulations is active.
@@ -337,18 +356,40 @@ public class Population {
      * evolution.
      *
      * @param p new set of individuals of the next population.
+     * @throws exceptions.IncompatibleConfigurationException when the
+     * population must be evaluated again and the dimension of the problem does
+     * not fit with the dimensionality of the function used as evaluator.
      */
-    public void setNextPopulation(ArrayList<Individual> p) {
+    public void setNextPopulation(ArrayList<Individual> p) throws IncompatibleConfigurationException {
         population = p;
         incrPopulationG();
     }
 
     /**
      * Increments the current generation in the evolution of the population.
+     * If the evaluator changes the way candidates are evaluated, the whole
+     * population is evaluated again, see reevaluatePopulation. The fitness of
+     * the new evaluations is not comparable with the previous one, so the best
+     * fitness of the results is reset and the fitness trace may get worse at
+     * that generation.
+     *
+     * @throws exceptions.IncompatibleConfigurationException when the
+     * population must be evaluated again and the dimension of the problem does
+     * not fit with the dimensionality of the function used as evaluator.
      */
-    public void incrPopulationG() {
+    public void incrPopulationG() throws IncompatibleConfigurationException {
         currentG++;
-        exe.setFitness(getBestIndividual().getFitness());
+        double bestFitness = getBestIndividual().getFitness();
+        if (exe.getEvaluator().nextGeneration(bestFitness)) {
+            if (exe.getSurrogate() != null) {
+                exe.getSurrogate().clear();
+            }
+            exe.getResults().resetBestFitness();
+            reevaluatePopulation(exe.getEvaluator());
+            bestFitness = getBestIndividual().getFitness();
+        }
+        exe.getResults().setFitnessSpread(getFitnessSpread());
+        exe.setFitness(bestFitness);
         exe.getResults().addF(exe.getF());
         exe.getResults().addCR(exe.getCR());
         exe.getResults().addNP(exe.getNP());
@@ -376,7 +417,9 @@ public class Population {
     }
 
     /**
-     * Evaluates all the individuals of the Population given an Evaluator.
+     * Evaluates all the individuals of the Population given an Evaluator. The
+     * genotypes are given to the evaluator at once, so it can evaluate the
+     * whole population together.
      *
      * @param evaluator the way each individual is going to be evaluated.
      * @throws exceptions.IncompatibleConfigurationException when the dimension
@@ -384,10 +427,34 @@ public class Population {
      * as evaluator.
      */
     public void evaluatePopulation(Evaluator evaluator) throws IncompatibleConfigurationException {
-        Individual ind;
-        for (int i = 0; i < population.size(); i++) {
-            ind = population.get(i);
-            ind.updateFitness();
+        evaluatePopulation(evaluator, true);
+    }
+
+    /**
+     * Evaluates again all the individuals of the Population when the
+     * Evaluator changes the way they are evaluated, for example when its
+     * mini-batch grows or with all the instances once the evolution has
+     * finished. These evaluations do not count as fitness evaluations, since
+     * no new candidate solution is evaluated, so the FEs reported never exceed
+     * the budget of the stopping criterion.
+     *
+     * @param evaluator the way each individual is going to be evaluated.
+     * @throws exceptions.IncompatibleConfigurationException when the dimension
+     * of the problem does not fit with the dimensionality of the function used
+     * as evaluator.
+     */
+    public void reevaluatePopulation(Evaluator evaluator) throws IncompatibleConfigurationException {
+        evaluatePopulation(evaluator, false);
+    }
+
+    private void evaluatePopulation(Evaluator evaluator, boolean counted) throws IncompatibleConfigurationException {
+        double[][] genotypes = new double[population.size()][];
+        for (int i = 0; i < genotypes.length; i++) {
+            genotypes[i] = population.get(i).getGenotype();
+        }
+        double[] fitness = evaluator.evaluatePopulation(genotypes);
+        for (int i = 0; i < genotypes.length; i++) {
+            population.get(i).updateFitness(fitness[i], counted && evaluator.isCountedEvaluation(i));
         }
     }
 
@@ -408,6 +475,43 @@ public class Population {
         exe.setNP(population.size());
     }
 
+    /**
+     * Writes the state of the Population: its individuals, its generation and
+     * its subpopulations.
+     *
+     * @param out destination of the Population.
+     * @throws IOException if the Population cannot be written.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(currentG);
+        out.writeBoolean(activeSubPopulations);
+        out.writeInt(subPopLB);
+        out.writeInt(subPopUB);
+        out.writeInt(population.size());
+        for (Individual ind : population) {
+            ind.write(out);
+        }
+    }
+
+    /**
+     * Replaces the state of the Population with a state written by write.
+     *
+     * @param in source of the Population.
+     * @throws IOException if the Population cannot be read.
+     */
+    public void read(DataInput in) throws IOException {
+        currentG = in.readInt();
+        activeSubPopulations = in.readBoolean();
+        subPopLB = in.readInt();
+        subPopUB = in.readInt();
+        int NP = in.readInt();
+        population = new ArrayList<>(NP);
+        for (int i = 0; i < NP; i++) {
+            population.add(Individual.read(exe, in));
+        }
+        exe.setNP(NP);
+    }
+
     /**
      * Gets a string representing the visualization by console of the
      * Population.
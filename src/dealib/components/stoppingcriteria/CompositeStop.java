@@ -0,0 +1,67 @@
+package dealib.components.stoppingcriteria;
+
+/**
+ * CompositeStop is a class implementing a stopping criterion made of several
+ * stopping criteria, which stops when all of them (AND) or any of them (OR) are
+ * satisfied.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class CompositeStop implements StoppingCriterion {
+
+    private final StoppingCriterion[] criteria;
+
+    /**
+     * TRUE if every criterion must be satisfied, FALSE if any is enough.
+     */
+    private final boolean all;
+
+    /**
+     * Constructor.
+     *
+     * @param all TRUE if every criterion must be satisfied (AND), FALSE if any
+     * is enough (OR).
+     * @param criteria stopping criteria composed.
+     */
+    public CompositeStop(boolean all, StoppingCriterion... criteria) {
+        this.all = all;
+        this.criteria = criteria;
+    }
+
+    /**
+     * Executes every composed stopping criterion, in order, until the result is
+     * known.
+     *
+     * @return TRUE if the stopping criterion is satisfied, FALSE otherwise.
+     */
+    @Override
+    public boolean stops() {
+        for (StoppingCriterion criterion : criteria) {
+            if (criterion.stops() != all) {
+                return !all;
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Gets a string representing the visualization by console of the Stopping
+     * Criterion.
+     *
+     * @return the condition of the Stopping Criterion.
+     */
+    @Override
+    public String toString() {
+        String str = "";
+        for (int i = 0; i < criteria.length; i++) {
+            if (i > 0) {
+                str += all ? " AND " : " OR ";
+            }
+            str += "(" + criteria[i] + ")";
+        }
+        return str;
+    }
+
+}
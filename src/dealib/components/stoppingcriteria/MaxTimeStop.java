@@ -0,0 +1,50 @@
+package dealib.components.stoppingcriteria;
+
+import planner.configuration.Execution;
+
+/**
+ * MaxTimeStop is a class implementing a stopping criterion based on the wall
+ * clock time elapsed since the execution started, measured with the monotonic
+ * clock of the system.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class MaxTimeStop implements StoppingCriterion {
+
+    private final Execution exe;
+
+    /**
+     * Constructor.
+     *
+     * @param exe Configurarion of the current execution.
+     */
+    public MaxTimeStop(Execution exe) {
+        this.exe = exe;
+    }
+
+    /**
+     * Executes a stopping criterion based on the time elapsed since the
+     * execution started.
+     *
+     * @return TRUE if the stopping criterion is satisfied, FALSE otherwise.
+     */
+    @Override
+    public boolean stops() {
+        long elapsed = System.nanoTime() - exe.getStartNanoTime();
+        return elapsed >= exe.getMaxTime() * 1000000L;
+    }
+
+    /**
+     * Gets a string representing the visualization by console of the Stopping
+     * Criterion.
+     *
+     * @return the condition of the Stopping Criterion.
+     */
+    @Override
+    public String toString() {
+        return "SC: Stops when " + exe.getMaxTime() + " ms have elapsed.";
+    }
+
+}
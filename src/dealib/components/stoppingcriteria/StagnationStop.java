@@ -0,0 +1,65 @@
+package dealib.components.stoppingcriteria;
+
+import planner.configuration.Execution;
+
+/**
+ * StagnationStop is a class implementing a stopping criterion based on the
+ * stagnation of the evolution: the best fitness has not improved for a number
+ * of function evaluations (FEs) or the fitness of the individuals of the
+ * population has converged.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class StagnationStop implements StoppingCriterion {
+
+    private final Execution exe;
+
+    /**
+     * Constructor.
+     *
+     * @param exe Configurarion of the current execution.
+     */
+    public StagnationStop(Execution exe) {
+        this.exe = exe;
+    }
+
+    /**
+     * Executes a stopping criterion based on the stagnation of the evolution:
+     * it stops when the best fitness has not improved in the configured number
+     * of FEs, or when the difference between the worst and the best fitness of
+     * the last population is lower than the configured spread. A value not
+     * greater than 0 disables each condition.
+     *
+     * @return TRUE if the stopping criterion is satisfied, FALSE otherwise.
+     */
+    @Override
+    public boolean stops() {
+        boolean stops = false;
+        int FEs = exe.getStagnationFEs();
+        if (FEs > 0) {
+            int withoutImprovement = exe.getResults().getNumFEs() - exe.getResults().getLastImprovementFE();
+            stops = withoutImprovement >= FEs;
+        }
+        double delta = exe.getStagnationDelta();
+        if (delta > 0 && exe.getResults().getFitnessSpread() < delta) {
+            stops = true;
+        }
+        return stops;
+    }
+
+    /**
+     * Gets a string representing the visualization by console of the Stopping
+     * Criterion.
+     *
+     * @return the condition of the Stopping Criterion.
+     */
+    @Override
+    public String toString() {
+        return "SC: Stops when fitness has not improved in " + exe.getStagnationFEs()
+                + " FEs or the population fitness spread is lower than "
+                + exe.getStagnationDelta() + ".";
+    }
+
+}
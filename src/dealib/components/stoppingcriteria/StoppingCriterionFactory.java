@@ -31,12 +31,20 @@ public class StoppingCriterionFactory {
      * "componentsAlias.properties" and by reflection creates the corresponding
      * stopping criterion operator.
      *
+     * Several stopping criteria can be composed with "&amp;" (AND) and "|" (OR),
+     * where "&amp;" has precedence, for example "sc-time|sc-target&amp;sc-gen".
+     *
      * @param stoppingCriterionName reduced stopping criterion name for
      * identifyng the full qualified name of a stopping criterion.
      * @param exe Execution configuration for the stopping criterion operator.
      * @return a stopping criterion operator.
      */
     public static StoppingCriterion createStoppingCriterion(String stoppingCriterionName, Execution exe) {
+        if (stoppingCriterionName.contains("|")) {
+            return createComposite(stoppingCriterionName.split("\\|"), false, exe);
+        } else if (stoppingCriterionName.contains("&")) {
+            return createComposite(stoppingCriterionName.split("&"), true, exe);
+        }
         String fullStoppingCriterionName = Reader.getComponentFullName(stoppingCriterionName);
         StoppingCriterion stoppingCriterion = null;
         try {
@@ -49,4 +57,26 @@ public class StoppingCriterionFactory {
 
         return stoppingCriterion;
     }
+
+    /**
+     * Creates a composition of stopping criteria.
+     *
+     * @param names reduced names of the stopping criteria, which can also be
+     * compositions.
+     * @param all TRUE if every criterion must be satisfied, FALSE if any is
+     * enough.
+     * @param exe Execution configuration for the stopping criterion operators.
+     * @return the composed stopping criterion, null if any of them cannot be
+     * created.
+     */
+    private static StoppingCriterion createComposite(String[] names, boolean all, Execution exe) {
+        StoppingCriterion[] criteria = new StoppingCriterion[names.length];
+        for (int i = 0; i < names.length; i++) {
+            criteria[i] = createStoppingCriterion(names[i].trim(), exe);
+            if (criteria[i] == null) {
+                return null;
+            }
+        }
+        return new CompositeStop(all, criteria);
+    }
 }
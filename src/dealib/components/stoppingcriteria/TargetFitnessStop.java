@@ -0,0 +1,51 @@
+package dealib.components.stoppingcriteria;
+
+import planner.configuration.Execution;
+
+/**
+ * TargetFitnessStop is a class implementing a stopping criterion based on
+ * reaching a known target fitness.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class TargetFitnessStop implements StoppingCriterion {
+
+    private final Execution exe;
+
+    /**
+     * Constructor.
+     *
+     * @param exe Configurarion of the current execution.
+     */
+    public TargetFitnessStop(Execution exe) {
+        this.exe = exe;
+    }
+
+    /**
+     * Executes a stopping criterion based on the best fitness found: it stops
+     * once the best fitness is lower or equal than the target fitness plus the
+     * allowed error.
+     *
+     * @return TRUE if the stopping criterion is satisfied, FALSE otherwise.
+     */
+    @Override
+    public boolean stops() {
+        double best = exe.getResults().getBestFitness();
+        return best <= exe.getTargetFitness() + exe.getTargetEpsilon();
+    }
+
+    /**
+     * Gets a string representing the visualization by console of the Stopping
+     * Criterion.
+     *
+     * @return the condition of the Stopping Criterion.
+     */
+    @Override
+    public String toString() {
+        return "SC: Stops when fitness " + exe.getTargetFitness() + " (+"
+                + exe.getTargetEpsilon() + ") has been reached.";
+    }
+
+}
@@ -0,0 +1,207 @@
+package dealib.components.surrogates;
+
+import java.util.Arrays;
+import planner.configuration.Execution;
+
+/**
+ * KNNSurrogate is a class implementing a surrogate which predicts the fitness
+ * of a candidate solution as the inverse distance weighted mean of the fitness
+ * of its k nearest candidate solutions already evaluated. The distances are
+ * measured with the genes scaled to the initialization range. A trial
+ * individual is rejected when its prediction is worse than the fitness of its
+ * target individual by more than a margin of the mean error of the recent
+ * predictions. The margin grows when a checked rejection turns out to be
+ * wrong and slowly shrinks while the rejections are right.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class KNNSurrogate implements Surrogate {
+
+    /**
+     * Number of neighbours used for predicting.
+     */
+    private static final int K = 5;
+
+    /**
+     * Maximum number of samples kept, the oldest ones are replaced.
+     */
+    private static final int ARCHIVE_SIZE = 500;
+
+    /**
+     * Weight of the last error in the mean error of the predictions.
+     */
+    private static final double ERROR_SMOOTHING = 0.1;
+
+    /**
+     * Probability of evaluating a rejected trial individual anyway.
+     */
+    private static final double CHECK_RATE = 0.1;
+
+    private static final double MIN_MARGIN = 0.1;
+    private static final double MAX_MARGIN = 100.0;
+
+    /**
+     * Configuration of the current execution.
+     */
+    private final Execution exe;
+
+    private double[][] samples;
+    private double[] fitness;
+    private int numSamples;
+    private int next;
+
+    /**
+     * Scale of each gene, the inverse of its initialization range.
+     */
+    private double[] scale;
+
+    /**
+     * Mean absolute error of the recent predictions.
+     */
+    private double meanError;
+    private boolean hasError;
+    private double margin;
+
+    /**
+     * Last prediction made, with the genotype predicted.
+     */
+    private double[] lastPredicted;
+    private double lastPrediction;
+
+    /**
+     * Constructor.
+     *
+     * @param exe configuration of the current execution.
+     */
+    public KNNSurrogate(Execution exe) {
+        this.exe = exe;
+        margin = 1.0;
+    }
+
+    @Override
+    public boolean rejects(double[] trial, double targetFitness) {
+        if (numSamples < K || !hasError) {
+            return false;
+        }
+        lastPrediction = predict(trial);
+        lastPredicted = trial.clone();
+        return lastPrediction - margin * meanError > targetFitness;
+    }
+
+    @Override
+    public void update(double[] genotype, double f) {
+        if (!Double.isFinite(f)) {
+            return;
+        }
+        if (samples == null) {
+            init(genotype.length);
+        }
+        if (numSamples >= K) {
+            double prediction = lastPredicted != null && Arrays.equals(lastPredicted, genotype)
+                    ? lastPrediction : predict(genotype);
+            double error = Math.abs(prediction - f);
+            meanError = hasError ? (1 - ERROR_SMOOTHING) * meanError + ERROR_SMOOTHING * error : error;
+            hasError = true;
+        }
+        lastPredicted = null;
+
+        System.arraycopy(genotype, 0, samples[next], 0, genotype.length);
+        fitness[next] = f;
+        next = (next + 1) % ARCHIVE_SIZE;
+        numSamples = Math.min(numSamples + 1, ARCHIVE_SIZE);
+    }
+
+    @Override
+    public void feedback(boolean wrong) {
+        if (wrong) {
+            margin = Math.min(MAX_MARGIN, margin * 1.5);
+        } else {
+            margin = Math.max(MIN_MARGIN, margin * 0.98);
+        }
+    }
+
+    @Override
+    public double getCheckRate() {
+        return CHECK_RATE;
+    }
+
+    @Override
+    public void clear() {
+        numSamples = 0;
+        next = 0;
+        hasError = false;
+        lastPredicted = null;
+    }
+
+    private void init(int D) {
+        samples = new double[ARCHIVE_SIZE][D];
+        fitness = new double[ARCHIVE_SIZE];
+        scale = new double[D];
+        double[] LB = exe.getIPR_LB();
+        double[] UB = exe.getIPR_UB();
+        for (int d = 0; d < D; d++) {
+            double range = (LB != null && UB != null && d < LB.length && d < UB.length) ? UB[d] - LB[d] : 1.0;
+            scale[d] = range > 0 ? 1.0 / range : 1.0;
+        }
+    }
+
+    /**
+     * Predicts the fitness of a candidate solution from its k nearest samples.
+     *
+     * @param genotype candidate solution.
+     * @return predicted fitness.
+     */
+    private double predict(double[] genotype) {
+        double[] nearestDistance = new double[K];
+        int[] nearest = new int[K];
+        Arrays.fill(nearestDistance, Double.MAX_VALUE);
+        for (int s = 0; s < numSamples; s++) {
+            double distance = 0.0;
+            double[] sample = samples[s];
+            for (int d = 0; d < genotype.length; d++) {
+                double diff = (genotype[d] - sample[d]) * scale[d];
+                distance += diff * diff;
+            }
+            // Insertion in the sorted list of nearest samples.
+            int pos = K;
+            while (pos > 0 && distance < nearestDistance[pos - 1]) {
+                pos--;
+            }
+            if (pos < K) {
+                System.arraycopy(nearestDistance, pos, nearestDistance, pos + 1, K - pos - 1);
+                System.arraycopy(nearest, pos, nearest, pos + 1, K - pos - 1);
+                nearestDistance[pos] = distance;
+                nearest[pos] = s;
+            }
+        }
+
+        if (nearestDistance[0] == 0.0) {
+            return fitness[nearest[0]];
+        }
+        double weights = 0.0;
+        double prediction = 0.0;
+        for (int n = 0; n < K; n++) {
+            double w = 1.0 / Math.sqrt(nearestDistance[n]);
+            weights += w;
+            prediction += w * fitness[nearest[n]];
+        }
+        return prediction / weights;
+    }
+
+    /**
+     * Gets the current margin, in mean errors of the predictions, required for
+     * rejecting a trial individual.
+     *
+     * @return the margin.
+     */
+    public double getMargin() {
+        return margin;
+    }
+
+    @Override
+    public String toString() {
+        return "KNN";
+    }
+}
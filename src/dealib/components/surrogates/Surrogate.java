@@ -0,0 +1,57 @@
+package dealib.components.surrogates;
+
+/**
+ * Surrogate is an interface for representing a cheap model of the fitness,
+ * trained with the candidate solutions already evaluated, used for discarding
+ * trial individuals which will clearly lose against their target individual
+ * without evaluating them.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public interface Surrogate {
+
+    /**
+     * Predicts if a trial individual will lose against its target individual
+     * by a clear margin.
+     *
+     * @param trial genotype of the trial individual.
+     * @param targetFitness fitness of the target individual.
+     * @return TRUE if the trial individual can be discarded without evaluating
+     * it, FALSE otherwise.
+     */
+    public abstract boolean rejects(double[] trial, double targetFitness);
+
+    /**
+     * Adds an evaluated candidate solution to the samples of the model. If its
+     * fitness was predicted before, the error of the prediction is used for
+     * tracking the accuracy of the model.
+     *
+     * @param genotype candidate solution, it is not modified nor kept.
+     * @param fitness fitness of the candidate solution.
+     */
+    public abstract void update(double[] genotype, double fitness);
+
+    /**
+     * Adapts the model after evaluating a rejected trial individual.
+     *
+     * @param wrong TRUE if the trial individual would have won against its
+     * target individual, FALSE otherwise.
+     */
+    public abstract void feedback(boolean wrong);
+
+    /**
+     * Gets the probability of evaluating a rejected trial individual anyway,
+     * for checking the decisions of the model.
+     *
+     * @return probability of checking a rejection.
+     */
+    public abstract double getCheckRate();
+
+    /**
+     * Drops every sample of the model, for example when the meaning of the
+     * fitness changes.
+     */
+    public abstract void clear();
+}
@@ -0,0 +1,56 @@
+package dealib.components.surrogates;
+
+import planner.configuration.Execution;
+import planner.utils.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * SurrogateFactory is a class for creating new surrogates from the differential
+ * evolution algorithms library (dealib) of the framework.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class SurrogateFactory {
+
+    /**
+     * Constructor that cannot be used following the Factory Pattern.
+     */
+    private SurrogateFactory() {
+
+    }
+
+    /**
+     * Creates a Surrogate already implemented in the differential evolution
+     * algorithms library (dealib) of the framework: given a surrogate reduced
+     * name, it searchs for the full qualified name in the external resource
+     * archive "componentsAlias.properties" and by reflection creates the
+     * corresponding surrogate.
+     *
+     * @param surrogateName reduced surrogate name for identifyng the full
+     * qualified name of a surrogate.
+     * @param exp Execution configuration for the surrogate.
+     * @return a surrogate.
+     */
+    public static Surrogate createSurrogate(String surrogateName, Execution exp) {
+        String fullSurrogateName = Reader.getComponentFullName(surrogateName);
+        Surrogate surrogate = null;
+
+        try {
+            Class<?> c = Class.forName(fullSurrogateName);
+            Constructor constructor = c.getConstructor(Execution.class);
+            surrogate = (Surrogate) constructor.newInstance(exp);
+        } catch (ClassNotFoundException e) {
+            System.err.println("Factory[Incorrect class name]::" + e.getMessage());
+        } catch (NoSuchMethodException e) {
+            System.err.println("Factory[Incorrect constructor name]::" + e.getMessage());
+        } catch (InstantiationException e) {
+            System.err.println("Factory[Error in Constructor]::" + e.getMessage());
+        } catch (IllegalAccessException | IllegalArgumentException | SecurityException | InvocationTargetException e) {
+            System.out.println("Factory[ERROR]::" + e.getMessage());
+        }
+        return surrogate;
+    }
+}
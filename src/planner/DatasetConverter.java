@@ -0,0 +1,50 @@
+package planner;
+
+import java.io.IOException;
+import planner.utils.BinaryDatasetFormat;
+import planner.utils.Dataset;
+import planner.utils.Reader;
+import planner.utils.Writer;
+
+/**
+ * DatasetConverter is a command line tool which converts a dataset with ARFF
+ * format into the binary columnar format, so experiments can map it into memory
+ * instead of parsing it.
+ *
+ * Usage: DatasetConverter input.arff [output.dcol]
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class DatasetConverter {
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: DatasetConverter input.arff [output."
+                    + BinaryDatasetFormat.EXTENSION + "]");
+            System.exit(1);
+        }
+
+        String input = args[0];
+        String output;
+        if (args.length == 2) {
+            output = args[1];
+        } else {
+            int dot = input.lastIndexOf('.');
+            output = (dot > 0 ? input.substring(0, dot) : input) + "." + BinaryDatasetFormat.EXTENSION;
+        }
+
+        Dataset dataset = Reader.loadDataset(input);
+        if (dataset == null) {
+            System.exit(1);
+        }
+        try {
+            Writer.writeBinaryDataset(dataset, output);
+            System.out.println("Dataset converted: " + output);
+        } catch (IOException e) {
+            System.err.println("[DatasetConverter]: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package planner;
+
+import java.io.IOException;
+import planner.configuration.Experiment;
+import planner.configuration.WorkerPool;
+import planner.utils.Reader;
+
+/**
+ * ExperimentWorker is the entry point of the worker processes launched by
+ * WorkerPool, run in the working directory of the coordinator.
+ * <p>
+ * Arguments: address of the coordinator, its port, the number of executions
+ * run at the same time and the milliseconds between heartbeats.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class ExperimentWorker {
+
+    public static void main(String[] args) {
+        Reader.loadConfigurationData("rsc/dataConfig.properties");
+        Experiment.setParallelism(Integer.parseInt(args[2]));
+        try {
+            WorkerPool.work(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[3]));
+        } catch (IOException e) {
+            System.err.println("[ExperimentWorker::main]: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
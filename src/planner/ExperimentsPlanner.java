@@ -2,8 +2,10 @@ package planner;
 
 import exceptions.ExperimentFormatException;
 import exceptions.IncompatibleConfigurationException;
+import java.io.IOException;
 import planner.utils.Reader;
 import planner.configuration.Experiment;
+import planner.configuration.WorkerPool;
 import planner.utils.Writer;
 
 public class ExperimentsPlanner {
@@ -13,14 +15,30 @@ public class ExperimentsPlanner {
     public static void main(String[] args) {
         Reader.loadConfigurationData("rsc/dataConfig.properties");
         NUM_EXPERIMENTS = Reader.getNumExperiments();
-        Experiment experiment;
-        for (int i = 0; i < NUM_EXPERIMENTS; i++) {
+        WorkerPool workers = null;
+        if (Reader.getNumWorkers() > 0) {
             try {
-                experiment = Reader.buildExperiment(Reader.loadExperimentProperties(i));
-                experiment.run();
-                Writer.writeExperimentInfo(experiment);
-            } catch (IncompatibleConfigurationException | ExperimentFormatException e) {
-                System.err.println(e.getMessage());
+                workers = new WorkerPool(Reader.getNumWorkers(), Reader.getWorkersPort(),
+                        Reader.getWorkersTimeout(), Reader.getWorkersRelaunches());
+            } catch (IOException e) {
+                System.err.println("[ExperimentsPlanner::main]: " + e.getMessage());
+            }
+        }
+        Experiment experiment;
+        try {
+            for (int i = 0; i < NUM_EXPERIMENTS; i++) {
+                try {
+                    experiment = Reader.buildExperiment(Reader.loadExperimentProperties(i));
+                    experiment.setWorkers(workers);
+                    experiment.run();
+                    Writer.writeExperimentInfo(experiment);
+                } catch (IncompatibleConfigurationException | ExperimentFormatException e) {
+                    System.err.println(e.getMessage());
+                }
+            }
+        } finally {
+            if (workers != null) {
+                workers.close();
             }
         }
 
@@ -0,0 +1,107 @@
+package planner;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import planner.utils.BinaryTraceFormat;
+import planner.utils.ExecutionResults;
+import planner.utils.TraceReader;
+
+/**
+ * TraceExporter is a command line tool which exports the results stored with
+ * the binary trace format for offline analysis: as the same CSV written by
+ * experiments without the binary format, or as a summary with one line per
+ * execution, printed in the standard output, for one or more files.
+ *
+ * Usage: TraceExporter csv input.dtrc [output.csv]
+ * <br>
+ * TraceExporter summary input.dtrc...
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class TraceExporter {
+
+    public static void main(String[] args) {
+        if (args.length >= 2 && args.length <= 3 && args[0].equals("csv")) {
+            String input = args[1];
+            String output;
+            if (args.length == 3) {
+                output = args[2];
+            } else {
+                int dot = input.lastIndexOf('.');
+                output = (dot > 0 ? input.substring(0, dot) : input) + ".csv";
+            }
+            try {
+                exportCSV(input, output);
+                System.out.println("Results exported: " + output);
+            } catch (IOException e) {
+                System.err.println("[TraceExporter]: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (args.length >= 2 && args[0].equals("summary")) {
+            try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+                out.write("FILE;EXECUTION_ID;ALGORITHM;D;FITNESS;NUM_FES;NUM_GENERATIONS;TIME(ms);CPU_TIME(ms);"
+                        + "ALLOCATED_BYTES;GC_COUNT;GC_TIME(ms);NP_CHANGES;F_CHANGES;CR_CHANGES;FITNESS_CHANGES");
+                out.newLine();
+                for (int i = 1; i < args.length; i++) {
+                    exportSummary(args[i], out);
+                }
+            } catch (IOException e) {
+                System.err.println("[TraceExporter]: " + e.getMessage());
+                System.exit(1);
+            }
+        } else {
+            System.err.println("Usage: TraceExporter csv input." + BinaryTraceFormat.EXTENSION + " [output.csv]");
+            System.err.println("       TraceExporter summary input." + BinaryTraceFormat.EXTENSION + "...");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the results of a binary trace file as CSV, one execution at a
+     * time.
+     *
+     * @param input path of the binary trace file.
+     * @param output path of the CSV file.
+     * @throws IOException if a file cannot be read or written.
+     */
+    private static void exportCSV(String input, String output) throws IOException {
+        try (TraceReader reader = new TraceReader(input);
+                BufferedWriter out = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            ExecutionResults results;
+            while ((results = reader.next()) != null) {
+                results.writeCSV(out);
+            }
+        }
+    }
+
+    /**
+     * Writes a line per execution of a binary trace file with its final
+     * results and the number of observations of its traces.
+     *
+     * @param input path of the binary trace file.
+     * @param out destination of the lines.
+     * @throws IOException if the file cannot be read or the lines written.
+     */
+    private static void exportSummary(String input, BufferedWriter out) throws IOException {
+        try (TraceReader reader = new TraceReader(input)) {
+            ExecutionResults results;
+            while ((results = reader.next()) != null) {
+                out.write(input + ";" + results.getEXECUTION_ID() + ";" + results.getAlgorithm() + ";"
+                        + results.getD() + ";" + results.getSolutionFitness() + ";"
+                        + results.getNumFEs() + ";" + results.getNumGenerations() + ";"
+                        + results.getTime() + ";" + results.getCPUTime() + ";"
+                        + results.getAllocatedBytes() + ";" + results.getGCCount() + ";"
+                        + results.getGCTime() + ";" + results.getNPValues().size() + ";"
+                        + results.getFValues().size() + ";" + results.getCRValues().size() + ";"
+                        + results.getFitnessValues().size());
+                out.newLine();
+            }
+        }
+    }
+}
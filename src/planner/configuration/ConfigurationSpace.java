@@ -0,0 +1,189 @@
+package planner.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ConfigurationSpace is a class representing every configuration of the
+ * executions of an Experiment, the cartesian product of the values of its
+ * parameters, without building them. Each configuration is identified by an
+ * index and decoded in mixed radix, following the order of the parameters:
+ * repetitions, algorithm, D, NP, F, CR, maximum value and stopping criterion,
+ * initializer, mutator, crossover, selector, IPR and evaluation, the last one
+ * being either a test function or a combination of dataset, objective
+ * function, regression metric and CV.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConfigurationSpace {
+
+    private final ArrayList<Integer> repetitions;
+    private final ArrayList<String> algorithms;
+    private final ArrayList<Integer> Ds;
+    private final ArrayList<Integer> NPs;
+    private final ArrayList<Double> Fs;
+    private final ArrayList<Double> CRs;
+    private final ArrayList<Integer> maxStops;
+    private final ArrayList<String> stoppingCriteria;
+    private final ArrayList<String> initializers;
+    private final ArrayList<String> mutators;
+    private final ArrayList<String> crossovers;
+    private final ArrayList<String> selectors;
+    private final ArrayList<ArrayList<Double>> IPR_LBs;
+    private final ArrayList<ArrayList<Double>> IPR_UBs;
+    private final ArrayList<String> testFunctions;
+    private final ArrayList<String> datasets;
+    private final ArrayList<String> objectiveFunctions;
+    private final ArrayList<String> regressionMetrics;
+    private final ArrayList<Integer> CVs;
+
+    /**
+     * Number of values of each parameter, in decoding order.
+     */
+    private final int[] radix;
+    private final long size;
+
+    /**
+     * Constructor given the parameters of an Experiment.
+     *
+     * @param experiment the experiment.
+     */
+    public ConfigurationSpace(Experiment experiment) {
+        repetitions = values(experiment.getParamRepetitions(), Integer.class);
+        algorithms = values(experiment.getParamAlgorithm(), String.class);
+        Ds = values(experiment.getParamD(), Integer.class);
+        NPs = values(experiment.getParamNP(), Integer.class);
+        Fs = values(experiment.getParamF(), Double.class);
+        CRs = values(experiment.getParamCR(), Double.class);
+        maxStops = values(experiment.getParamMaxStop(), Integer.class);
+        stoppingCriteria = values(experiment.getParamStoppingCriterion(), String.class);
+        initializers = values(experiment.getParamInitializer(), String.class);
+        mutators = values(experiment.getParamMutator(), String.class);
+        crossovers = values(experiment.getParamCrossover(), String.class);
+        selectors = values(experiment.getParamSelector(), String.class);
+        IPR_LBs = bounds(experiment.getParamIPR_LB());
+        IPR_UBs = bounds(experiment.getParamIPR_UB());
+        testFunctions = values(experiment.getParamTestFunction(), String.class);
+        datasets = values(experiment.getParamDataset(), String.class);
+        objectiveFunctions = values(experiment.getParamObjectiveFunction(), String.class);
+        regressionMetrics = values(experiment.getParamRegressionMetric(), String.class);
+        CVs = values(experiment.getParamCV(), Integer.class);
+
+        int evaluations = testFunctions.size() + datasets.size()
+                * objectiveFunctions.size() * regressionMetrics.size() * CVs.size();
+        radix = new int[]{repetitions.size(), algorithms.size(), Ds.size(),
+            NPs.size(), Fs.size(), CRs.size(), maxStops.size(),
+            stoppingCriteria.size(), initializers.size(), mutators.size(),
+            crossovers.size(), selectors.size(), IPR_LBs.size(), evaluations};
+        long s = 1;
+        for (int r : radix) {
+            s *= r;
+        }
+        size = s;
+    }
+
+    /**
+     * Gets the values of a parameter, checking their type.
+     *
+     * @param parameter the parameter.
+     * @param type type of its values.
+     * @return the values.
+     */
+    private static <T> ArrayList<T> values(Parameter<?> parameter, Class<T> type) {
+        return values(parameter.getValues(), type);
+    }
+
+    private static <T> ArrayList<T> values(List<?> list, Class<T> type) {
+        ArrayList<T> values = new ArrayList<>(list.size());
+        for (Object value : list) {
+            values.add(type.cast(value));
+        }
+        return values;
+    }
+
+    /**
+     * Gets the values of a parameter of bounds, each one a list of bounds by
+     * dimension.
+     *
+     * @param parameter the parameter.
+     * @return the values.
+     */
+    private static ArrayList<ArrayList<Double>> bounds(Parameter<?> parameter) {
+        ArrayList<ArrayList<Double>> values = new ArrayList<>();
+        for (Object value : parameter.getValues()) {
+            values.add(values((List<?>) value, Double.class));
+        }
+        return values;
+    }
+
+    /**
+     * Gets the number of configurations.
+     *
+     * @return number of configurations.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Builds the configuration with a given index. The configurations are
+     * ordered as the nested loops over the parameters, the last parameter
+     * changing first.
+     *
+     * @param index index of the configuration, from 0 to size() - 1.
+     * @return the configuration.
+     */
+    public ExecutionConfig get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("ConfigurationSpace[" + index
+                    + " out of " + size + " configurations.]");
+        }
+        int[] digit = new int[radix.length];
+        long rest = index;
+        for (int p = radix.length - 1; p >= 0; p--) {
+            digit[p] = (int) (rest % radix[p]);
+            rest /= radix[p];
+        }
+
+        int D = Ds.get(digit[2]);
+        int IPR = digit[12];
+        double[] iprLB = new double[D];
+        double[] iprUB = new double[D];
+        ArrayList<Double> ipr;
+        for (int d = 0; d < D; d++) {
+            ipr = IPR_LBs.get(IPR);
+            iprLB[d] = ipr.get(Math.min(d, ipr.size() - 1));
+            ipr = IPR_UBs.get(IPR);
+            iprUB[d] = ipr.get(Math.min(d, ipr.size() - 1));
+        }
+
+        int evaluation = digit[13];
+        String testFunction = null;
+        String dataset = null;
+        String objectiveFunction = null;
+        String regressionMetric = null;
+        Integer CV = null;
+        if (evaluation < testFunctions.size()) {
+            testFunction = testFunctions.get(evaluation);
+        } else {
+            int e = evaluation - testFunctions.size();
+            CV = CVs.get(e % CVs.size());
+            e /= CVs.size();
+            regressionMetric = regressionMetrics.get(e % regressionMetrics.size());
+            e /= regressionMetrics.size();
+            objectiveFunction = objectiveFunctions.get(e % objectiveFunctions.size());
+            e /= objectiveFunctions.size();
+            dataset = datasets.get(e);
+        }
+
+        return new ExecutionConfig(index, repetitions.get(digit[0]),
+                algorithms.get(digit[1]), D, NPs.get(digit[3]), Fs.get(digit[4]),
+                CRs.get(digit[5]), maxStops.get(digit[6]),
+                stoppingCriteria.get(digit[7]), initializers.get(digit[8]),
+                mutators.get(digit[9]), crossovers.get(digit[10]),
+                selectors.get(digit[11]), IPR, iprLB, iprUB, evaluation,
+                testFunction, dataset, objectiveFunction, regressionMetric, CV);
+    }
+}
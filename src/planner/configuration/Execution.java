@@ -1,16 +1,19 @@
 package planner.configuration;
 
 import dealib.algorithms.Algorithm;
+import dealib.algorithms.SnapshotStore;
 import dealib.components.Individual;
 import dealib.components.initializers.*;
 import dealib.components.mutators.*;
 import dealib.components.crossovers.*;
 import dealib.components.selectors.*;
 import dealib.components.stoppingcriteria.StoppingCriterion;
+import dealib.components.surrogates.Surrogate;
 import exceptions.IncompatibleConfigurationException;
 import planner.utils.CrossValidation;
 import planner.utils.Dataset;
 import planner.utils.ExecutionResults;
+import planner.utils.PhaseTimer;
 import planner.utils.evaluators.Evaluator;
 import planner.utils.objfunctions.ObjectiveFunction;
 
@@ -24,13 +27,13 @@ import planner.utils.objfunctions.ObjectiveFunction;
  */
 public class Execution {
 
-    private static int NEXT_EXECUTION_ID = 0;
-    private String EXECUTION_ID;
+    private final String EXECUTION_ID;
     private ExecutionResults results;
 
     private Algorithm algorithm;
     private Dataset dataset;
     private CrossValidation CV;
+    private int fold;
     private int NP;
     private int D;
     private double F;
@@ -45,9 +48,27 @@ public class Execution {
     private Selector selector;
     private Evaluator evaluator;
     private ObjectiveFunction objFunction;
-
-    public Execution() {
-        EXECUTION_ID = Integer.toString(NEXT_EXECUTION_ID++);
+    private Surrogate surrogate;
+    private SnapshotStore snapshots;
+    private PhaseTimer phaseTimer = PhaseTimer.DISABLED;
+    private long maxTime;
+    private double targetFitness;
+    private double targetEpsilon;
+    private int stagnationFEs;
+    private double stagnationDelta;
+    private long startNanoTime;
+    private int miniBatchSize;
+    private double miniBatchGrowth;
+    private int miniBatchPeriod;
+
+    /**
+     * Constructor given the identifier of the execution, unique within its
+     * Experiment.
+     *
+     * @param id identifier of the execution.
+     */
+    public Execution(String id) {
+        EXECUTION_ID = id;
         results = new ExecutionResults(EXECUTION_ID);
     }
 
@@ -67,6 +88,10 @@ public class Execution {
         results.setSelector(selector.toString());
         results.setEvaluator(evaluator.toString());
         System.out.println(this);
+        startNanoTime = System.nanoTime();
+        results.startResourceUsage();
+        results.startTelemetry();
+        results.startPhaseTiming(phaseTimer);
         try {
             long initTime = System.currentTimeMillis();
             Individual ind = algorithm.run();
@@ -78,6 +103,10 @@ public class Execution {
         } catch (IncompatibleConfigurationException e) {
             results.setSuccessful(false);
             System.err.println(e.getMessage());
+        } finally {
+            results.stopResourceUsage();
+            results.stopTelemetry();
+            results.stopPhaseTiming();
         }
 
         return results;
@@ -99,6 +128,16 @@ public class Execution {
         return CV;
     }
 
+    /**
+     * Gets the fold of the cross validation used as test partition by this
+     * execution, the rest of folds are used for training.
+     *
+     * @return index of the test fold.
+     */
+    public int getFold() {
+        return fold;
+    }
+
     public int getNP() {
         return NP;
     }
@@ -159,6 +198,122 @@ public class Execution {
         return objFunction;
     }
 
+    /**
+     * Gets the value of the monotonic clock of the system when the execution
+     * started running.
+     *
+     * @return start time in nanoseconds, only comparable with System.nanoTime.
+     */
+    public long getStartNanoTime() {
+        return startNanoTime;
+    }
+
+    /**
+     * Gets the maximum wall clock time of the execution for MaxTimeStop.
+     *
+     * @return maximum time in milliseconds.
+     */
+    public long getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * Gets the known target fitness for TargetFitnessStop.
+     *
+     * @return target fitness.
+     */
+    public double getTargetFitness() {
+        return targetFitness;
+    }
+
+    /**
+     * Gets the error allowed over the target fitness for TargetFitnessStop.
+     *
+     * @return error allowed.
+     */
+    public double getTargetEpsilon() {
+        return targetEpsilon;
+    }
+
+    /**
+     * Gets the number of FEs without improving the best fitness for
+     * StagnationStop.
+     *
+     * @return number of FEs.
+     */
+    public int getStagnationFEs() {
+        return stagnationFEs;
+    }
+
+    /**
+     * Gets the minimum spread of the fitness of the population for
+     * StagnationStop.
+     *
+     * @return minimum spread.
+     */
+    public double getStagnationDelta() {
+        return stagnationDelta;
+    }
+
+    /**
+     * Gets the surrogate used for discarding trial individuals without
+     * evaluating them.
+     *
+     * @return the surrogate, null if every trial individual is evaluated.
+     */
+    public Surrogate getSurrogate() {
+        return surrogate;
+    }
+
+    /**
+     * Gets the store of the snapshots of the state of the algorithm.
+     *
+     * @return the store, null if no snapshots are taken.
+     */
+    public SnapshotStore getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Gets the timer of the phases of the loop of the algorithm.
+     *
+     * @return the timer, PhaseTimer.DISABLED if the phases are not timed.
+     */
+    public PhaseTimer getPhaseTimer() {
+        return phaseTimer;
+    }
+
+    /**
+     * Gets the initial number of instances of the mini-batches used for
+     * evaluating the candidates with a dataset.
+     *
+     * @return size of the first mini-batch, 0 if every evaluation uses all the
+     * instances.
+     */
+    public int getMiniBatchSize() {
+        return miniBatchSize;
+    }
+
+    /**
+     * Gets the factor applied to the size of the mini-batch each time it
+     * grows.
+     *
+     * @return growth factor of the mini-batch.
+     */
+    public double getMiniBatchGrowth() {
+        return miniBatchGrowth;
+    }
+
+    /**
+     * Gets the number of generations evaluated with a mini-batch before it
+     * grows.
+     *
+     * @return number of generations.
+     */
+    public int getMiniBatchPeriod() {
+        return miniBatchPeriod;
+    }
+
     public void setAlgorithm(Algorithm algorithm) {
         this.algorithm = algorithm;
     }
@@ -188,6 +343,10 @@ public class Execution {
         this.CV = CV;
     }
 
+    public void setFold(int fold) {
+        this.fold = fold;
+    }
+
     public void setD(int D) {
         this.D = D;
     }
@@ -200,10 +359,6 @@ public class Execution {
         this.CR = CR;
     }
 
-    public void setEXECUTIONCONFIG_ID(int id) {
-        EXECUTION_ID = Integer.toString(id) + EXECUTION_ID;
-    }
-
     public void setFitness(double fitness) {
         results.addFitness(fitness);
     }
@@ -256,6 +411,45 @@ public class Execution {
         this.objFunction = objFunction;
     }
 
+    public void setMaxTime(long maxTime) {
+        this.maxTime = maxTime;
+    }
+
+    public void setTargetFitness(double targetFitness, double targetEpsilon) {
+        this.targetFitness = targetFitness;
+        this.targetEpsilon = targetEpsilon;
+    }
+
+    public void setStagnation(int stagnationFEs, double stagnationDelta) {
+        this.stagnationFEs = stagnationFEs;
+        this.stagnationDelta = stagnationDelta;
+    }
+
+    public void setSurrogate(Surrogate surrogate) {
+        this.surrogate = surrogate;
+    }
+
+    public void setSnapshots(SnapshotStore snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    public void setPhaseTimer(PhaseTimer phaseTimer) {
+        this.phaseTimer = phaseTimer;
+    }
+
+    /**
+     * Configures the evaluation with mini-batches of the training instances.
+     *
+     * @param size initial number of instances, 0 for using all of them.
+     * @param growth factor applied to the size each time it grows.
+     * @param period number of generations evaluated before growing.
+     */
+    public void setMiniBatch(int size, double growth, int period) {
+        this.miniBatchSize = size;
+        this.miniBatchGrowth = growth;
+        this.miniBatchPeriod = period;
+    }
+
     @Override
     public String toString() {
         String str = "----------------------------------------------------------";
@@ -273,7 +467,13 @@ public class Execution {
         if (dataset != null) {
             str += "\nDataset:\n" + dataset;
             str += "\nObjective Function: " + objFunction;
-            str += "\nCV: " + CV;
+            if (CV != null) {
+                str += "\nCV: " + CV.getK() + " (test fold " + fold + ")";
+            }
+            if (miniBatchSize > 0) {
+                str += "\nMini-batch: " + miniBatchSize + " (x" + miniBatchGrowth
+                        + " every " + miniBatchPeriod + " generations)";
+            }
         }
         return str;
     }
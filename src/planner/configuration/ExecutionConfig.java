@@ -0,0 +1,279 @@
+package planner.configuration;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * ExecutionConfig is an immutable class representing one point of the
+ * configuration space of an Experiment: the values of every parameter needed
+ * for creating the executions of that configuration.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class ExecutionConfig {
+
+    private final long id;
+    private final int repetitions;
+    private final String algorithm;
+    private final int D;
+    private final int NP;
+    private final double F;
+    private final double CR;
+    private final int maxStop;
+    private final String stoppingCriterion;
+    private final String initializer;
+    private final String mutator;
+    private final String crossover;
+    private final String selector;
+    private final int IPR;
+    private final double[] IPR_LB;
+    private final double[] IPR_UB;
+    private final String testFunction;
+    private final String dataset;
+    private final String objectiveFunction;
+    private final String regressionMetric;
+    private final Integer CV;
+
+    /**
+     * Index of the evaluation configuration in the configuration space: test
+     * function or combination of dataset, objective function, regression metric
+     * and CV.
+     */
+    private final int evaluation;
+
+    ExecutionConfig(long id, int repetitions, String algorithm, int D, int NP,
+            double F, double CR, int maxStop, String stoppingCriterion,
+            String initializer, String mutator, String crossover, String selector,
+            int IPR, double[] IPR_LB, double[] IPR_UB, int evaluation,
+            String testFunction, String dataset, String objectiveFunction,
+            String regressionMetric, Integer CV) {
+        this.id = id;
+        this.repetitions = repetitions;
+        this.algorithm = algorithm;
+        this.D = D;
+        this.NP = NP;
+        this.F = F;
+        this.CR = CR;
+        this.maxStop = maxStop;
+        this.stoppingCriterion = stoppingCriterion;
+        this.initializer = initializer;
+        this.mutator = mutator;
+        this.crossover = crossover;
+        this.selector = selector;
+        this.IPR = IPR;
+        this.IPR_LB = IPR_LB;
+        this.IPR_UB = IPR_UB;
+        this.evaluation = evaluation;
+        this.testFunction = testFunction;
+        this.dataset = dataset;
+        this.objectiveFunction = objectiveFunction;
+        this.regressionMetric = regressionMetric;
+        this.CV = CV;
+    }
+
+    /**
+     * Gets a copy of this configuration with a different maximum value for
+     * the stopping criterion.
+     *
+     * @param maxStop new maximum value for the stopping criterion.
+     * @return the new configuration.
+     */
+    public ExecutionConfig withMaxStop(int maxStop) {
+        return new ExecutionConfig(id, repetitions, algorithm, D, NP, F, CR,
+                maxStop, stoppingCriterion, initializer, mutator, crossover,
+                selector, IPR, IPR_LB, IPR_UB, evaluation, testFunction, dataset,
+                objectiveFunction, regressionMetric, CV);
+    }
+
+    /**
+     * Gets the index of the configuration in its configuration space.
+     *
+     * @return index of the configuration.
+     */
+    public long getId() {
+        return id;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getD() {
+        return D;
+    }
+
+    public int getNP() {
+        return NP;
+    }
+
+    public double getF() {
+        return F;
+    }
+
+    public double getCR() {
+        return CR;
+    }
+
+    public int getMaxStop() {
+        return maxStop;
+    }
+
+    public String getStoppingCriterion() {
+        return stoppingCriterion;
+    }
+
+    public String getInitializer() {
+        return initializer;
+    }
+
+    public String getMutator() {
+        return mutator;
+    }
+
+    public String getCrossover() {
+        return crossover;
+    }
+
+    public String getSelector() {
+        return selector;
+    }
+
+    public double[] getIPR_LB() {
+        return IPR_LB.clone();
+    }
+
+    public double[] getIPR_UB() {
+        return IPR_UB.clone();
+    }
+
+    public String getTestFunction() {
+        return testFunction;
+    }
+
+    public String getDataset() {
+        return dataset;
+    }
+
+    public String getObjectiveFunction() {
+        return objectiveFunction;
+    }
+
+    public String getRegressionMetric() {
+        return regressionMetric;
+    }
+
+    /**
+     * Gets the number of folds of the cross validation.
+     *
+     * @return k, null if the configuration uses a test function.
+     */
+    public Integer getCV() {
+        return CV;
+    }
+
+    /**
+     * Checks if the executions of this configuration use a dataset.
+     *
+     * @return TRUE if they use a dataset, FALSE if they use a test function.
+     */
+    public boolean usesDataset() {
+        return testFunction == null;
+    }
+
+    /**
+     * Gets a key identifying the problem solved by this configuration:
+     * configurations with the same key have comparable fitness.
+     *
+     * @return key of the problem.
+     */
+    public String getProblemKey() {
+        return D + "/" + IPR + "/" + evaluation;
+    }
+
+    /**
+     * Writes the configuration in binary format, see read.
+     *
+     * @param out destination of the configuration.
+     * @throws IOException if the configuration cannot be written.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeLong(id);
+        out.writeInt(repetitions);
+        out.writeInt(D);
+        out.writeInt(NP);
+        out.writeDouble(F);
+        out.writeDouble(CR);
+        out.writeInt(maxStop);
+        out.writeInt(IPR);
+        out.writeInt(evaluation);
+        out.writeInt(CV == null ? -1 : CV);
+        for (double[] bounds : new double[][]{IPR_LB, IPR_UB}) {
+            out.writeInt(bounds.length);
+            for (double v : bounds) {
+                out.writeDouble(v);
+            }
+        }
+        for (String str : new String[]{algorithm, stoppingCriterion, initializer,
+            mutator, crossover, selector, testFunction, dataset, objectiveFunction,
+            regressionMetric}) {
+            out.writeBoolean(str != null);
+            if (str != null) {
+                out.writeUTF(str);
+            }
+        }
+    }
+
+    /**
+     * Reads a configuration written by write.
+     *
+     * @param in source of the configuration.
+     * @return the configuration.
+     * @throws IOException if the configuration cannot be read.
+     */
+    static ExecutionConfig read(DataInput in) throws IOException {
+        long id = in.readLong();
+        int repetitions = in.readInt();
+        int D = in.readInt();
+        int NP = in.readInt();
+        double F = in.readDouble();
+        double CR = in.readDouble();
+        int maxStop = in.readInt();
+        int IPR = in.readInt();
+        int evaluation = in.readInt();
+        int CV = in.readInt();
+        double[][] bounds = new double[2][];
+        for (int b = 0; b < bounds.length; b++) {
+            bounds[b] = new double[in.readInt()];
+            for (int i = 0; i < bounds[b].length; i++) {
+                bounds[b][i] = in.readDouble();
+            }
+        }
+        String[] str = new String[10];
+        for (int i = 0; i < str.length; i++) {
+            str[i] = in.readBoolean() ? in.readUTF() : null;
+        }
+        return new ExecutionConfig(id, repetitions, str[0], D, NP, F, CR, maxStop,
+                str[1], str[2], str[3], str[4], str[5], IPR, bounds[0], bounds[1],
+                evaluation, str[6], str[7], str[8], str[9], CV < 0 ? null : CV);
+    }
+
+    @Override
+    public String toString() {
+        String str = "[" + id + "] " + algorithm + " D=" + D + " NP=" + NP
+                + " F=" + F + " CR=" + CR + " " + stoppingCriterion + "=" + maxStop
+                + " " + initializer + " " + mutator + " " + crossover + " " + selector;
+        if (usesDataset()) {
+            str += " " + dataset + " " + objectiveFunction + " " + regressionMetric + " CV=" + CV;
+        } else {
+            str += " " + testFunction;
+        }
+        return str;
+    }
+}
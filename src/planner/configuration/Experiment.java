@@ -1,16 +1,46 @@
 package planner.configuration;
 
 import dealib.algorithms.AlgorithmFactory;
+import dealib.algorithms.SnapshotStore;
 import dealib.components.initializers.*;
 import dealib.components.mutators.*;
 import dealib.components.crossovers.*;
 import dealib.components.selectors.*;
+import dealib.components.surrogates.SurrogateFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import planner.utils.evaluators.CachedEvaluator;
+import planner.utils.evaluators.Evaluator;
 import planner.utils.evaluators.EvaluatorFactory;
+import dealib.components.stoppingcriteria.MaxFEsStop;
+import dealib.components.stoppingcriteria.MaxGenerationsStop;
 import dealib.components.stoppingcriteria.StoppingCriterionFactory;
 import planner.utils.CrossValidation;
+import planner.utils.DatasetRegistry;
 import planner.utils.ExecutionResults;
+import planner.utils.ExperimentJournal;
+import planner.utils.JournalRecord;
+import static planner.utils.MathTools.RND;
+import planner.utils.MathTools;
+import planner.utils.PhaseTimer;
 import planner.utils.Reader;
+import planner.utils.ResultsWriter;
+import planner.utils.TracePolicy;
 import planner.utils.evaluators.regrmetrics.RegressionMetric;
 import planner.utils.objfunctions.ObjectiveFunctionFactory;
 
@@ -25,9 +55,50 @@ public class Experiment {
 
     private static int NEXT_EXPERIMENT_ID = 0;
     private final int EXPERIMENT_ID;
-    private static int EXECUTIONCONFIG_ID = 0;
 
-    ArrayList<ArrayList<ExecutionResults>> executionsResults;
+    /**
+     * Maximum number of executions run at the same time.
+     */
+    private static int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Pool running the executions while the experiment is running.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Worker processes running the configurations, null if they run in this
+     * process.
+     */
+    private WorkerPool workers;
+
+    /**
+     * Journal of the finished executions while the experiment is running,
+     * null if the experiment is not journaled.
+     */
+    private ExperimentJournal journal;
+    private boolean journaling;
+    private int snapshotPeriod;
+
+    /**
+     * Files where the results of the executions are written as soon as they
+     * finish, while the experiment is running.
+     */
+    private ResultsWriter output;
+    private boolean binaryResults;
+
+    /**
+     * Policies of the NP, F, CR and fitness traces, see TracePolicy.
+     */
+    private String[] tracePolicies = {TracePolicy.DEFAULT, TracePolicy.DEFAULT,
+        TracePolicy.DEFAULT, TracePolicy.DEFAULT};
+
+    /**
+     * One of every phaseTiming iterations of the algorithms is timed, see
+     * PhaseTimer, 0 if the phases are not timed.
+     */
+    private int phaseTiming;
+    private int numSuccessfulExecutions;
 
     private final Parameter paramRepetitions;
     private final Parameter paramAlgorithm;
@@ -49,29 +120,36 @@ public class Experiment {
     private final Parameter paramRegressionMetric;
     private final Parameter paramObjectiveFunction;
 
-    private Integer currentRepetitions;
-    private String currentAlgorithm;
-    private String currentDataset;
-    private CrossValidation currentCV;
-    private double[] currentIPR_LB;
-    private double[] currentIPR_UB;
-    private Integer currentNP;
-    private Integer currentD;
-    private Double currentF;
-    private Double currentCR;
-    private String currentStoppingCriterion;
-    private Integer currentMaxStop;
-    private String currentInitializer;
-    private String currentMutator;
-    private String currentCrossover;
-    private String currentSelector;
-    private String currentTestFunction;
-    private String currentRegressionMetric;
-    private String currentObjectiveFunction;
+    private int miniBatchSize;
+    private double miniBatchGrowth;
+    private int miniBatchPeriod;
+
+    private int fitnessCacheSize;
+    private boolean fitnessCacheCountsFEs;
+    private String surrogate;
+
+    private long maxTime;
+    private double targetFitness;
+    private double targetEpsilon;
+    private int stagnationFEs;
+    private double stagnationDelta;
+
+    private boolean racing;
+    private int racingMinRounds;
+    private double racingAlpha;
+    private int racingConfigurations;
+    private int racingEliminated;
+    private long racingRepetitionsSaved;
+
+    private boolean tuning;
+    private int tuningSamples;
+    private int tuningEta;
+    private int tuningSampled;
+    private ArrayList<String> tuningReport;
+    private long tuningExecutions;
 
     public Experiment() {
         EXPERIMENT_ID = NEXT_EXPERIMENT_ID++;
-        executionsResults = new ArrayList<>();
         paramRepetitions = new Parameter("Number of repetitions", "Repetitions "
                 + "to be run by this execution.");
         paramAlgorithm = new Parameter("Algorithm", "Algorithm to be "
@@ -109,68 +187,114 @@ public class Experiment {
                 + "evolution when experimenting with datasets.");
     }
 
+    /**
+     * Runs the configurations of the experiment in a work-stealing pool. The
+     * results are written in the order of the configuration space, so they
+     * do not depend on the parallelism.
+     */
     public void run() {
-        for (Integer rep : (ArrayList<Integer>) paramRepetitions.getValues()) {
-            currentRepetitions = rep;
-            for (String strAlg : (ArrayList<String>) paramAlgorithm.getValues()) {
-                currentAlgorithm = strAlg;
-                for (Integer D : (ArrayList<Integer>) paramD.getValues()) {
-                    currentD = D;
-                    for (Integer NP : (ArrayList<Integer>) paramNP.getValues()) {
-                        currentNP = NP;
-                        for (Double F : (ArrayList<Double>) paramF.getValues()) {
-                            currentF = F;
-                            for (Double CR : (ArrayList<Double>) paramCR.getValues()) {
-                                currentCR = CR;
-                                for (Integer maxStop : (ArrayList<Integer>) paramMaxStop.getValues()) {
-                                    currentMaxStop = maxStop;
-                                    for (String strStop : (ArrayList<String>) paramStoppingCriterion.getValues()) {
-                                        currentStoppingCriterion = strStop;
-                                        for (String strInit : (ArrayList<String>) paramInitializer.getValues()) {
-                                            currentInitializer = strInit;
-                                            for (String strMut : (ArrayList<String>) paramMutator.getValues()) {
-                                                currentMutator = strMut;
-                                                for (String strCross : (ArrayList<String>) paramCrossover.getValues()) {
-                                                    currentCrossover = strCross;
-                                                    for (String strSel : (ArrayList<String>) paramSelector.getValues()) {
-                                                        currentSelector = strSel;
-                                                        for (int i = 0; i < paramIPR_LB.getNumValues(); i++) {
-                                                            double[] iprLB = new double[D];
-                                                            double[] iprUB = new double[D];
-                                                            ArrayList<Double> ipr;
-                                                            for (int d = 0; d < D; d++) {
-                                                                ipr = (ArrayList<Double>) paramIPR_LB.getValue(i);
-                                                                iprLB[d] = ipr.get(Math.min(d, ipr.size() - 1));
-                                                                ipr = (ArrayList<Double>) paramIPR_UB.getValue(i);
-                                                                iprUB[d] = ipr.get(Math.min(d, ipr.size() - 1));
-                                                            }
-                                                            currentIPR_LB = iprLB;
-                                                            currentIPR_UB = iprUB;
-                                                            for (String strTF : (ArrayList<String>) paramTestFunction.getValues()) {
-                                                                currentTestFunction = strTF;
-                                                                runExecution();
-                                                            }
-                                                            for (String strDat : (ArrayList<String>) paramDataset.getValues()) {
-                                                                currentDataset = strDat;
-                                                                for (String strOF : (ArrayList<String>) paramObjectiveFunction.getValues()) {
-                                                                    currentObjectiveFunction = strOF;
-                                                                    for (String strRM : (ArrayList<String>) paramRegressionMetric.getValues()) {
-                                                                        currentRegressionMetric = strRM;
-                                                                        for (Integer CV : (ArrayList<Integer>) paramCV.getValues()) {
-                                                                            currentCV = new CrossValidation(Reader.loadDataset(currentDataset), CV);
-                                                                            runExecution();
-                                                                        }
-                                                                    }
-                                                                }
-                                                            }
-                                                        }
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                            }
+        ConfigurationSpace space = new ConfigurationSpace(this);
+        try {
+            output = new ResultsWriter(getFolder(), (int) (tuning ? Math.min(space.size(), tuningSamples) : space.size()),
+                    binaryResults);
+        } catch (IOException e) {
+            System.err.println("[Experiment::run]: " + e.getMessage());
+            return;
+        }
+        pool = new ForkJoinPool(PARALLELISM);
+        if (journaling && workers == null) {
+            openJournal();
+        } else if (journaling) {
+            System.err.println("[Experiment::run]: the journal is not used with worker processes.");
+        }
+        if (snapshotPeriod > 0) {
+            new File(getFolder() + "/snapshots").mkdirs();
+        }
+        try {
+            if (tuning) {
+                tune(space);
+            } else if (racing) {
+                race(space);
+            } else {
+                ArrayList<ExecutionConfig> configs = new ArrayList<>();
+                ArrayList<Consumer<ExecutionResults>> outputs = new ArrayList<>();
+                int[] repetitions = new int[(int) space.size()];
+                for (int i = 0; i < repetitions.length; i++) {
+                    configs.add(space.get(i));
+                    repetitions[i] = repetitions(configs.get(i));
+                    outputs.add(output(i));
+                }
+                runConfigs(configs, 0, repetitions, outputs);
+            }
+        } finally {
+            pool.shutdownNow();
+            pool = null;
+            numSuccessfulExecutions = output.getNumWritten();
+            output = null;
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("[Experiment::run]: " + e.getMessage());
+                }
+                journal = null;
+            }
+        }
+    }
+
+    /**
+     * Runs the configurations racing them: the configurations solving the same
+     * problem run one repetition each per round and, once the minimum number
+     * of rounds has been run, the configurations statistically worse than the
+     * best one are dropped after each round following F-Race: a Friedman test
+     * over the ranks of the configurations in each round and, if it is
+     * significant, a comparison of every rank sum against the best one. The
+     * configurations left run the rest of their repetitions.
+     *
+     * @param space configurations of the experiment.
+     */
+    private void race(ConfigurationSpace space) {
+        int size = (int) space.size();
+        LinkedHashMap<String, ArrayList<ExecutionConfig>> problems = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            ExecutionConfig config = space.get(i);
+            problems.computeIfAbsent(config.getProblemKey(), key -> new ArrayList<>()).add(config);
+        }
+
+        racingConfigurations = size;
+        racingEliminated = 0;
+        racingRepetitionsSaved = 0;
+        for (ArrayList<ExecutionConfig> alive : problems.values()) {
+            ArrayList<ArrayList<Double>> scores = new ArrayList<>();
+            for (int c = 0; c < alive.size(); c++) {
+                scores.add(new ArrayList<>());
+            }
+            for (int round = 0; round < maxRepetitions(alive); round++) {
+                ArrayList<ExecutionConfig> running = new ArrayList<>();
+                ArrayList<ArrayList<Double>> runningScores = new ArrayList<>();
+                ArrayList<Consumer<ExecutionResults>> runningOutputs = new ArrayList<>();
+                for (int c = 0; c < alive.size(); c++) {
+                    ExecutionConfig config = alive.get(c);
+                    if (round < config.getRepetitions()) {
+                        running.add(config);
+                        runningScores.add(scores.get(c));
+                        runningOutputs.add(output((int) config.getId()));
+                    }
+                }
+                int[] repetitions = new int[running.size()];
+                Arrays.fill(repetitions, 1);
+                double[] roundScores = runConfigs(running, round, repetitions, runningOutputs);
+                for (int c = 0; c < running.size(); c++) {
+                    runningScores.get(c).add(roundScores[c]);
+                }
+                if (round + 1 >= racingMinRounds && round < minRepetitions(alive) && alive.size() > 1) {
+                    boolean[] dominated = raceRound(scores, round + 1);
+                    for (int c = alive.size() - 1; c >= 0; c--) {
+                        if (dominated[c]) {
+                            racingEliminated++;
+                            racingRepetitionsSaved += alive.get(c).getRepetitions() - round - 1;
+                            alive.remove(c);
+                            scores.remove(c);
                         }
                     }
                 }
@@ -178,64 +302,553 @@ public class Experiment {
         }
     }
 
-    private Execution createExecution() {
-        Execution exe = new Execution();
-        exe.setAlgorithm(AlgorithmFactory.createAlgorithm(currentAlgorithm, exe));
-        exe.setD(currentD);
-        exe.setNP(currentNP);
-        exe.setF(currentF);
-        exe.setCR(currentCR);
-        exe.setMaxStop(currentMaxStop);
-        exe.setStoppingCriterion(StoppingCriterionFactory.createStoppingCriterion(currentStoppingCriterion, exe));
-        exe.setInitializer(InitializerFactory.createInitializer(currentInitializer, exe));
-        exe.setMutator(MutatorFactory.createMutator(currentMutator, exe));
-        exe.setCrossover(CrossoverFactory.createCrossover(currentCrossover, exe));
-        exe.setSelector(SelectorFactory.createSelector(currentSelector, exe));
-        exe.setLowerBounds(currentIPR_LB);
-        exe.setUpperBounds(currentIPR_UB);
-        if (currentDataset == null | currentObjectiveFunction == null
-                | currentRegressionMetric == null | currentCV == null) {
-            exe.setEvaluator(EvaluatorFactory.createEvaluator(currentTestFunction, exe));
+    /**
+     * Tunes the configurations with successive halving: a random sample of
+     * the configurations solving the same problem is run with a reduced
+     * maximum value of the stopping criterion, and only the best fraction of
+     * them, given by the reduction factor, is run again with that maximum
+     * multiplied by the factor, until the remaining configurations run with
+     * their configured maximum. The results kept for each configuration are
+     * the ones of its largest budget, in the file given by its position in the
+     * sample. The budget is only reduced for the stopping criteria bounded by
+     * their maximum value, see scalesWithMaxStop; the configurations of a
+     * problem with any other criterion are run once with their configured
+     * budget, without halving.
+     *
+     * @param space configurations of the experiment.
+     */
+    private void tune(ConfigurationSpace space) {
+        TreeSet<Long> sampled = new TreeSet<>();
+        long samples = Math.min(space.size(), tuningSamples);
+        while (sampled.size() < samples) {
+            sampled.add((long) (RND.nextDouble() * space.size()));
+        }
+        HashMap<Long, Integer> files = new HashMap<>();
+        LinkedHashMap<String, ArrayList<ExecutionConfig>> problems = new LinkedHashMap<>();
+        for (long i : sampled) {
+            ExecutionConfig config = space.get(i);
+            files.put(i, files.size());
+            problems.computeIfAbsent(config.getProblemKey(), key -> new ArrayList<>()).add(config);
+        }
+
+        tuningReport = new ArrayList<>();
+        tuningSampled = sampled.size();
+        tuningExecutions = 0;
+        for (ArrayList<ExecutionConfig> alive : problems.values()) {
+            int rungs = 1;
+            for (int n = alive.size(); n >= tuningEta; n /= tuningEta) {
+                rungs++;
+            }
+            for (ExecutionConfig config : alive) {
+                if (rungs > 1 && !scalesWithMaxStop(config.getStoppingCriterion())) {
+                    System.err.println("[Experiment::tune]: " + config.getStoppingCriterion()
+                            + " is not bounded by its maximum value, the configurations of "
+                            + config.getProblemKey() + " are run without halving.");
+                    rungs = 1;
+                    break;
+                }
+            }
+            HashMap<ExecutionConfig, Double> scores = new HashMap<>();
+            for (int rung = 0; rung < rungs; rung++) {
+                double reduction = Math.pow(tuningEta, rungs - 1 - rung);
+                ArrayList<ExecutionConfig> budgets = new ArrayList<>();
+                ArrayList<Consumer<ExecutionResults>> budgetOutputs = new ArrayList<>();
+                int[] repetitions = new int[alive.size()];
+                for (int c = 0; c < alive.size(); c++) {
+                    ExecutionConfig config = alive.get(c);
+                    int file = files.get(config.getId());
+                    budgets.add(config.withMaxStop((int) Math.max(1, Math.round(config.getMaxStop() / reduction))));
+                    if (rung > 0) {
+                        resetOutput(file);
+                    }
+                    budgetOutputs.add(output(file));
+                    repetitions[c] = repetitions(config);
+                    tuningExecutions += repetitions[c];
+                }
+                double[] budgetScores = runConfigs(budgets, 0, repetitions, budgetOutputs);
+                scores.clear();
+                for (int c = 0; c < alive.size(); c++) {
+                    scores.put(alive.get(c), budgetScores[c]);
+                }
+                alive.sort((c1, c2) -> Double.compare(scores.get(c1), scores.get(c2)));
+                if (rung < rungs - 1) {
+                    alive.subList(Math.max(1, alive.size() / tuningEta), alive.size()).clear();
+                }
+            }
+            for (ExecutionConfig config : alive) {
+                tuningReport.add(config + " -> " + scores.get(config));
+            }
+        }
+    }
+
+    /**
+     * Checks if the budget of a stopping criterion is bounded by its maximum
+     * value, so reducing that value reduces the budget of the execution: the
+     * criterion is MaxFEsStop or MaxGenerationsStop, or an OR composition with
+     * one of them.
+     *
+     * @param stoppingCriterion reduced name of the stopping criterion.
+     * @return TRUE if the budget is bounded by the maximum value, FALSE
+     * otherwise.
+     */
+    private static boolean scalesWithMaxStop(String stoppingCriterion) {
+        for (String name : stoppingCriterion.split("\\|")) {
+            String fullName = Reader.getComponentFullName(name.trim());
+            if (MaxFEsStop.class.getName().equals(fullName)
+                    || MaxGenerationsStop.class.getName().equals(fullName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the destination of the results of a configuration, which writes
+     * them to its file.
+     *
+     * @param file index of the file of the configuration.
+     * @return destination of the results.
+     */
+    private Consumer<ExecutionResults> output(int file) {
+        ResultsWriter writer = output;
+        return results -> {
+            try {
+                writer.write(file, results);
+            } catch (IOException e) {
+                System.err.println("[Experiment::output]: " + e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Discards the results already written to the file of a configuration.
+     *
+     * @param file index of the file of the configuration.
+     */
+    private void resetOutput(int file) {
+        try {
+            output.reset(file);
+        } catch (IOException e) {
+            System.err.println("[Experiment::resetOutput]: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the number of repetitions run for a configuration. A cross
+     * validation is run once, its folds are its repetitions.
+     *
+     * @param config configuration of the executions.
+     * @return number of repetitions.
+     */
+    private static int repetitions(ExecutionConfig config) {
+        return config.usesDataset() ? 1 : config.getRepetitions();
+    }
+
+    private static int maxRepetitions(ArrayList<ExecutionConfig> configs) {
+        int max = 0;
+        for (ExecutionConfig config : configs) {
+            max = Math.max(max, config.getRepetitions());
+        }
+        return max;
+    }
+
+    private static int minRepetitions(ArrayList<ExecutionConfig> configs) {
+        int min = Integer.MAX_VALUE;
+        for (ExecutionConfig config : configs) {
+            min = Math.min(min, config.getRepetitions());
+        }
+        return min;
+    }
+
+    /**
+     * Applies the F-Race tests to the scores of the configurations racing.
+     *
+     * @param scores scores of each configuration in each round, lower is
+     * better.
+     * @param n number of rounds compared.
+     * @return TRUE for each configuration statistically worse than the best
+     * one.
+     */
+    private boolean[] raceRound(ArrayList<ArrayList<Double>> scores, int n) {
+        int k = scores.size();
+        double[] rankSums = new double[k];
+        double sumSquaredRanks = 0;
+        Integer[] order = new Integer[k];
+        for (int round = 0; round < n; round++) {
+            final int r = round;
+            for (int c = 0; c < k; c++) {
+                order[c] = c;
+            }
+            Arrays.sort(order, (c1, c2) -> Double.compare(scores.get(c1).get(r), scores.get(c2).get(r)));
+            // Tied scores share the mean of their ranks.
+            for (int from = 0; from < k;) {
+                int to = from + 1;
+                while (to < k && scores.get(order[to]).get(r).equals(scores.get(order[from]).get(r))) {
+                    to++;
+                }
+                double rank = (from + to + 1) / 2.0;
+                for (int i = from; i < to; i++) {
+                    rankSums[order[i]] += rank;
+                    sumSquaredRanks += rank * rank;
+                }
+                from = to;
+            }
+        }
+
+        boolean[] dominated = new boolean[k];
+        // A1 - C1, the variance of the ranks over every round.
+        double rankVariance = sumSquaredRanks - n * k * (k + 1) * (k + 1) / 4.0;
+        if (rankVariance <= 0) {
+            return dominated;
+        }
+        double deviation = 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (double rankSum : rankSums) {
+            deviation += Math.pow(rankSum - n * (k + 1) / 2.0, 2);
+            best = Math.min(best, rankSum);
+        }
+        double T = (k - 1) * deviation / rankVariance;
+        if (MathTools.chiSquareSurvival(T, k - 1) >= racingAlpha) {
+            return dominated;
+        }
+        int df = (n - 1) * (k - 1);
+        double threshold = MathTools.studentTQuantile(1 - racingAlpha / 2, df)
+                * Math.sqrt(2 * n * Math.max(0, 1 - T / (n * (k - 1))) * rankVariance / df);
+        for (int c = 0; c < k; c++) {
+            dominated[c] = rankSums[c] - best > threshold;
+        }
+        return dominated;
+    }
+
+    private Execution createExecution(ExecutionConfig config, CrossValidation CV, String id) {
+        Execution exe = new Execution(id);
+        exe.getResults().setTracePolicies(TracePolicy.parse(tracePolicies[0]), TracePolicy.parse(tracePolicies[1]),
+                TracePolicy.parse(tracePolicies[2]), TracePolicy.parse(tracePolicies[3]));
+        if (phaseTiming > 0) {
+            exe.setPhaseTimer(new PhaseTimer(phaseTiming));
+        }
+        exe.setAlgorithm(AlgorithmFactory.createAlgorithm(config.getAlgorithm(), exe));
+        exe.setD(config.getD());
+        exe.setNP(config.getNP());
+        exe.setF(config.getF());
+        exe.setCR(config.getCR());
+        exe.setMaxStop(config.getMaxStop());
+        exe.setMaxTime(maxTime);
+        exe.setTargetFitness(targetFitness, targetEpsilon);
+        exe.setStagnation(stagnationFEs, stagnationDelta);
+        exe.setStoppingCriterion(StoppingCriterionFactory.createStoppingCriterion(config.getStoppingCriterion(), exe));
+        exe.setInitializer(InitializerFactory.createInitializer(config.getInitializer(), exe));
+        exe.setMutator(MutatorFactory.createMutator(config.getMutator(), exe));
+        exe.setCrossover(CrossoverFactory.createCrossover(config.getCrossover(), exe));
+        exe.setSelector(SelectorFactory.createSelector(config.getSelector(), exe));
+        exe.setLowerBounds(config.getIPR_LB());
+        exe.setUpperBounds(config.getIPR_UB());
+        if (CV == null) {
+            exe.setEvaluator(EvaluatorFactory.createEvaluator(config.getTestFunction(), exe));
         } else {
-            exe.setDataset(Reader.loadDataset(currentDataset));
-            exe.setObjectiveFunction(ObjectiveFunctionFactory.createObjectiveFunction(currentObjectiveFunction));
-            exe.setEvaluator(EvaluatorFactory.createEvaluator(currentRegressionMetric, exe));
-            exe.setCV(currentCV);
+            exe.setDataset(DatasetRegistry.getDataset(config.getDataset()));
+            exe.setMiniBatch(miniBatchSize, miniBatchGrowth, miniBatchPeriod);
+            exe.setObjectiveFunction(ObjectiveFunctionFactory.createObjectiveFunction(config.getObjectiveFunction()));
+            exe.setEvaluator(EvaluatorFactory.createEvaluator(config.getRegressionMetric(), exe));
+            exe.setCV(CV);
+        }
+        if (surrogate != null) {
+            exe.setSurrogate(SurrogateFactory.createSurrogate(surrogate, exe));
+        }
+        if (fitnessCacheSize > 0) {
+            exe.setEvaluator(new CachedEvaluator(exe, exe.getEvaluator(), fitnessCacheSize, fitnessCacheCountsFEs));
         }
 
         return exe;
     }
 
-    private void runExecution() {
-        ArrayList<ExecutionResults> executionResults = new ArrayList<>();
-        if (currentCV != null) {
-            for (int i = 0; i < currentCV.getK(); i++) {
-                Execution exe = createExecution();
-                exe.setEXECUTIONCONFIG_ID(EXECUTIONCONFIG_ID);
-                ExecutionResults results = exe.run();
-                if (results.isSuccessful()) {
-                    CrossValidation CV = exe.getCV();
-                    CV.setTestingState();
-                    RegressionMetric regrmetric = (RegressionMetric) exe.getEvaluator();
-                    regrmetric.evaluate(results.getSolution());
-                    executionResults.add(results);
-                    exe.getCV().updatePartitions();
-                    CV.setTrainingState();
+    /**
+     * Sets the maximum number of executions run at the same time.
+     *
+     * @param threads number of threads, if it is not positive the number of
+     * available processors is used.
+     */
+    public static void setParallelism(int threads) {
+        PARALLELISM = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sets the worker processes running the configurations of the experiment.
+     * The journal is not used with worker processes, but the snapshots are,
+     * so the task of a lost worker resumes from them.
+     *
+     * @param workers the worker processes, null for running the
+     * configurations in this process.
+     */
+    public void setWorkers(WorkerPool workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * Runs several configurations at the same time, each one with a seed drawn
+     * in order from the random object of the calling thread.
+     *
+     * @param configs configurations of the executions.
+     * @param firstRepetition index of the first repetition run.
+     * @param repetitions number of repetitions run of each configuration.
+     * @param outputs destination of the results of the successful executions
+     * of each configuration.
+     * @return mean fitness of the solutions of each configuration, see
+     * runExecution.
+     */
+    private double[] runConfigs(List<ExecutionConfig> configs, int firstRepetition,
+            int[] repetitions, List<Consumer<ExecutionResults>> outputs) {
+        ArrayList<Future<Double>> tasks = new ArrayList<>(configs.size());
+        for (int c = 0; c < configs.size(); c++) {
+            ExecutionConfig config = configs.get(c);
+            int configRepetitions = repetitions[c];
+            Consumer<ExecutionResults> configOutput = outputs.get(c);
+            long seed = RND.nextLong();
+            if (workers != null) {
+                tasks.add(runRemote(config, firstRepetition, configRepetitions, configOutput, seed));
+            } else {
+                tasks.add(pool.submit(() -> runExecution(config, firstRepetition,
+                        configRepetitions, configOutput, seed)));
+            }
+        }
+        double[] scores = new double[configs.size()];
+        for (int c = 0; c < configs.size(); c++) {
+            try {
+                scores[c] = tasks.get(c).get();
+            } catch (InterruptedException | ExecutionException e) {
+                System.err.println("[Experiment::runConfigs]: " + e);
+                scores[c] = Double.POSITIVE_INFINITY;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Runs repetitions of a configuration in a worker process, or in the pool
+     * of this process if every worker is lost.
+     *
+     * @param config configuration of the executions.
+     * @param firstRepetition index of the first repetition run.
+     * @param repetitions number of repetitions.
+     * @param output destination of the results of the successful executions.
+     * @param seed seed of the random object while creating the executions.
+     * @return future with the mean fitness, see runExecution.
+     */
+    private Future<Double> runRemote(ExecutionConfig config, int firstRepetition, int repetitions,
+            Consumer<ExecutionResults> output, long seed) {
+        return workers.submit(EXPERIMENT_ID, config, firstRepetition, repetitions, seed).handle((result, e) -> {
+            if (e == null) {
+                result.getResults().forEach(output);
+                return CompletableFuture.completedFuture(result.getScore());
+            }
+            System.err.println("[Experiment::runRemote]: " + e.getMessage() + ", running " + config.getId() + " locally.");
+            return CompletableFuture.supplyAsync(() -> runExecution(config, firstRepetition,
+                    repetitions, output, seed), pool);
+        }).thenCompose(score -> score);
+    }
+
+    /**
+     * Runs repetitions of a configuration on behalf of a coordinator, see
+     * WorkerPool. The pool of the experiment is created by the first task.
+     *
+     * @param config configuration of the executions.
+     * @param firstRepetition index of the first repetition run.
+     * @param repetitions number of repetitions.
+     * @param executionResults list where the results of the successful
+     * executions are added.
+     * @param seed seed of the random object while creating the executions.
+     * @return mean fitness, see runExecution.
+     */
+    double runTask(ExecutionConfig config, int firstRepetition, int repetitions,
+            ArrayList<ExecutionResults> executionResults, long seed) {
+        if (pool == null) {
+            pool = new ForkJoinPool(PARALLELISM);
+            if (snapshotPeriod > 0) {
+                new File(getFolder() + "/snapshots").mkdirs();
+            }
+        }
+        return pool.submit(() -> runExecution(config, firstRepetition, repetitions,
+                executionResults::add, seed)).join();
+    }
+
+    /**
+     * Runs repetitions of a configuration. Executions with datasets run a new
+     * cross validation in each repetition, with one execution per fold. Every
+     * execution is created, with its own seed, before any of them runs, since
+     * the thread may run other tasks while waiting for them. The results of
+     * each execution are sent to the output, in order, as soon as it and the
+     * previous ones finish, and then released. Only a window of twice the
+     * parallelism of the pool is forked ahead of the one being waited for,
+     * so at most that many finished results, with their traces, wait for a
+     * slower previous execution.
+     *
+     * @param config configuration of the executions.
+     * @param firstRepetition index of the first repetition run.
+     * @param repetitions number of repetitions.
+     * @param output destination of the results of the successful executions.
+     * @param seed seed of the random object while creating the executions.
+     * @return mean fitness of the solutions of the successful executions, over
+     * the test folds with datasets, infinity if no execution succeeded.
+     */
+    private double runExecution(ExecutionConfig config, int firstRepetition, int repetitions,
+            Consumer<ExecutionResults> output, long seed) {
+        MathTools.setRandomSeed(seed);
+        ArrayList<ExecutionResults> results = new ArrayList<>();
+        ArrayList<ForkJoinTask<Double>> tasks = new ArrayList<>();
+        for (int i = firstRepetition; i < firstRepetition + repetitions; i++) {
+            String id = config.getId() + "_" + i;
+            if (config.usesDataset()) {
+                CrossValidation CV = new CrossValidation(DatasetRegistry.getDataset(config.getDataset()), config.getCV());
+                for (int fold = 0; fold < CV.getK(); fold++) {
+                    Execution exe = createExecution(config, CV, id + "_" + fold);
+                    exe.setFold(fold);
+                    addExecutionTask(config, exe, RND.nextLong(), results, tasks);
                 }
+            } else {
+                Execution exe = createExecution(config, null, id);
+                addExecutionTask(config, exe, RND.nextLong(), results, tasks);
             }
-        } else {
-            for (int i = 0; i < currentRepetitions; i++) {
-                Execution exe = createExecution();
-                exe.setEXECUTIONCONFIG_ID(EXECUTIONCONFIG_ID);
-                ExecutionResults results = exe.run();
-                if (results.isSuccessful()) {
-                    executionResults.add(results);
+        }
+        // Forked in reverse order, so this thread takes the first ones.
+        int window = Math.min(tasks.size(), 2 * PARALLELISM);
+        for (int i = window - 1; i >= 0; i--) {
+            tasks.get(i).fork();
+        }
+
+        double fitness = 0;
+        int successful = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i + window < tasks.size()) {
+                tasks.get(i + window).fork();
+            }
+            double executionFitness;
+            try {
+                executionFitness = tasks.get(i).join();
+            } catch (RuntimeException e) {
+                System.err.println("[Experiment::runExecution]: " + e);
+                continue;
+            } finally {
+                tasks.set(i, null);
+            }
+            ExecutionResults executionResults = results.set(i, null);
+            if (executionResults.isSuccessful()) {
+                output.accept(executionResults);
+                fitness += executionFitness;
+                successful++;
+            }
+        }
+        return successful > 0 ? fitness / successful : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Adds the task running an execution, which returns the fitness of its
+     * solution, over its test fold with datasets. If the execution is found in
+     * the journal, its results are taken from the journal instead of running
+     * it; otherwise, they are added to the journal once it finishes.
+     *
+     * @param config configuration of the execution.
+     * @param exe the execution.
+     * @param seed seed of the random object of the execution.
+     * @param results list where the results of the execution are added.
+     * @param tasks list where the task is added.
+     */
+    private void addExecutionTask(ExecutionConfig config, Execution exe, long seed,
+            ArrayList<ExecutionResults> results, ArrayList<ForkJoinTask<Double>> tasks) {
+        long hash = hash(config, seed);
+        JournalRecord record = journal == null ? null : journal.lookup(exe.getEXECUTION_ID(), hash);
+        if (record != null) {
+            results.add(record.getResults());
+            tasks.add(ForkJoinTask.adapt(() -> record.getScore()));
+            return;
+        }
+        // Mini-batches are not part of the snapshots, so those executions
+        // always start from the beginning.
+        if (snapshotPeriod > 0 && miniBatchSize == 0) {
+            exe.setSnapshots(new SnapshotStore(getFolder() + "/snapshots/"
+                    + exe.getEXECUTION_ID() + ".snap", hash, snapshotPeriod));
+        }
+        results.add(exe.getResults());
+        tasks.add(ForkJoinTask.adapt(() -> {
+            MathTools.setRandomSeed(seed);
+            ExecutionResults executionResults = exe.run();
+            double score = executionResults.getSolutionFitness();
+            if (executionResults.isSuccessful() && exe.getCV() != null) {
+                Evaluator evaluator = exe.getEvaluator();
+                if (evaluator instanceof CachedEvaluator) {
+                    evaluator = ((CachedEvaluator) evaluator).getEvaluator();
                 }
+                RegressionMetric regrmetric = (RegressionMetric) evaluator;
+                score = regrmetric.evaluate(executionResults.getSolution(), exe.getCV().getTestPartition(exe.getFold()));
             }
+            if (journal != null) {
+                try {
+                    journal.append(new JournalRecord(exe.getEXECUTION_ID(), hash, score, executionResults));
+                } catch (IOException e) {
+                    System.err.println("[Experiment::addExecutionTask]: " + e.getMessage());
+                }
+            }
+            return score;
+        }));
+    }
+
+    /**
+     * Gets a description of the settings of the experiment shared by every
+     * configuration, part of the hash of the executions in the journal.
+     *
+     * @return description of the settings.
+     */
+    private String settings() {
+        return miniBatchSize + ";" + miniBatchGrowth + ";" + miniBatchPeriod + ";"
+                + fitnessCacheSize + ";" + fitnessCacheCountsFEs + ";" + surrogate + ";"
+                + maxTime + ";" + targetFitness + ";" + targetEpsilon + ";"
+                + stagnationFEs + ";" + stagnationDelta + ";" + String.join(";", tracePolicies) + ";" + phaseTiming;
+    }
+
+    /**
+     * Computes the hash identifying an execution in the journal and in its
+     * snapshots, from the whole configuration in binary format, so every
+     * parameter of the configuration is taken into account, the settings of
+     * the experiment and the seed.
+     *
+     * @param config configuration of the execution.
+     * @param seed seed of the random object of the execution.
+     * @return the hash.
+     */
+    private long hash(ExecutionConfig config, long seed) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            config.write(out);
+            out.writeUTF(settings());
+            out.writeLong(seed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return ExperimentJournal.hash(bytes.toByteArray());
+    }
 
-        EXECUTIONCONFIG_ID++;
-        executionsResults.add(executionResults);
+    /**
+     * Gets the folder of the properties file of the experiment, where its
+     * outputs are stored.
+     *
+     * @return path of the folder.
+     */
+    private String getFolder() {
+        String experimentPath = Reader.getExperimentPath(EXPERIMENT_ID);
+        return experimentPath.substring(0, experimentPath.lastIndexOf("/"));
+    }
+
+    /**
+     * Opens the journal of the experiment, in the folder of its properties
+     * file.
+     */
+    private void openJournal() {
+        String journalPath = getFolder() + "/Experiment.journal";
+        try {
+            journal = new ExperimentJournal(journalPath);
+            System.out.println("Journal " + journalPath + ": " + journal.size() + " executions finished.");
+        } catch (IOException e) {
+            System.err.println("[Experiment::openJournal]: " + e.getMessage());
+        }
     }
 
     public int getEXPERIMENT_ID() {
@@ -310,12 +923,12 @@ public class Experiment {
         return paramRegressionMetric;
     }
 
-    public Parameter getParamTestFunction() {
-        return paramTestFunction;
+    public Parameter getParamObjectiveFunction() {
+        return paramObjectiveFunction;
     }
 
-    public ArrayList<ArrayList<ExecutionResults>> getExecutionsResults() {
-        return executionsResults;
+    public Parameter getParamTestFunction() {
+        return paramTestFunction;
     }
 
     public void setParamAlgorithmValues(ArrayList<String> algorithms) {
@@ -394,6 +1007,167 @@ public class Experiment {
         this.paramObjectiveFunction.setValues(evaluators);
     }
 
+    /**
+     * Configures the evaluation with mini-batches of the training instances
+     * for the executions with datasets.
+     *
+     * @param size initial number of instances, 0 for using all of them.
+     * @param growth factor applied to the size each time it grows.
+     * @param period number of generations evaluated before growing.
+     */
+    public void setMiniBatch(int size, double growth, int period) {
+        this.miniBatchSize = size;
+        this.miniBatchGrowth = growth;
+        this.miniBatchPeriod = period;
+    }
+
+    /**
+     * Configures a cache of the fitness of the candidate solutions already
+     * evaluated.
+     *
+     * @param size maximum number of candidate solutions kept, 0 for no cache.
+     * @param hitsCountFEs TRUE if the candidate solutions found in the cache
+     * count as fitness evaluations, FALSE otherwise.
+     */
+    public void setFitnessCache(int size, boolean hitsCountFEs) {
+        this.fitnessCacheSize = size;
+        this.fitnessCacheCountsFEs = hitsCountFEs;
+    }
+
+    /**
+     * Sets the maximum wall clock time of each execution, used by MaxTimeStop.
+     *
+     * @param maxTime maximum time in milliseconds.
+     */
+    public void setMaxTime(long maxTime) {
+        this.maxTime = maxTime;
+    }
+
+    /**
+     * Sets the known target fitness, used by TargetFitnessStop.
+     *
+     * @param targetFitness target fitness.
+     * @param targetEpsilon error allowed over the target fitness.
+     */
+    public void setTargetFitness(double targetFitness, double targetEpsilon) {
+        this.targetFitness = targetFitness;
+        this.targetEpsilon = targetEpsilon;
+    }
+
+    /**
+     * Sets the limits of the stagnation, used by StagnationStop.
+     *
+     * @param stagnationFEs number of FEs without improving the best fitness.
+     * @param stagnationDelta minimum spread of the fitness of the population.
+     */
+    public void setStagnation(int stagnationFEs, double stagnationDelta) {
+        this.stagnationFEs = stagnationFEs;
+        this.stagnationDelta = stagnationDelta;
+    }
+
+    /**
+     * Sets the surrogate used for discarding trial individuals without
+     * evaluating them.
+     *
+     * @param surrogate reduced name of the surrogate, null if every trial
+     * individual is evaluated.
+     */
+    public void setSurrogate(String surrogate) {
+        this.surrogate = surrogate;
+    }
+
+    /**
+     * Configures the racing of the configurations solving the same problem,
+     * which drops the configurations statistically worse than the best one
+     * before running all their repetitions. With datasets, each repetition
+     * runs a new cross validation.
+     *
+     * @param racing TRUE for racing the configurations, FALSE for running
+     * every repetition of every configuration.
+     * @param minRounds number of repetitions run before dropping any
+     * configuration, at least 2.
+     * @param alpha significance level of the tests.
+     */
+    public void setRacing(boolean racing, int minRounds, double alpha) {
+        this.racing = racing;
+        this.racingMinRounds = Math.max(2, minRounds);
+        this.racingAlpha = alpha;
+    }
+
+    /**
+     * Configures the journal of the finished executions, which lets an
+     * interrupted experiment be resumed without running them again.
+     *
+     * @param journaling TRUE for journaling the executions, FALSE otherwise.
+     */
+    public void setJournal(boolean journaling) {
+        this.journaling = journaling;
+    }
+
+    /**
+     * Configures the format of the files with the results of the executions.
+     *
+     * @param binary TRUE for the compact binary format described in
+     * BinaryTraceFormat, FALSE for CSV.
+     */
+    public void setBinaryResults(boolean binary) {
+        this.binaryResults = binary;
+    }
+
+    /**
+     * Configures the policies deciding which observations are stored in the
+     * convergence traces of the executions.
+     *
+     * @param NPPolicy definition of the policy of the NP trace.
+     * @param FPolicy definition of the policy of the F trace.
+     * @param CRPolicy definition of the policy of the CR trace.
+     * @param fitnessPolicy definition of the policy of the fitness trace.
+     * @see TracePolicy
+     */
+    public void setTracePolicies(String NPPolicy, String FPolicy, String CRPolicy, String fitnessPolicy) {
+        this.tracePolicies = new String[]{NPPolicy, FPolicy, CRPolicy, fitnessPolicy};
+    }
+
+    /**
+     * Configures the timing of the phases of the loop of the algorithms,
+     * reported by execution with its results. A timed iteration takes a few
+     * System.nanoTime calls, so the period keeps the overhead low.
+     *
+     * @param period one of every period iterations is timed, 0 for not timing
+     * the phases.
+     */
+    public void setPhaseTiming(int period) {
+        this.phaseTiming = Math.max(0, period);
+    }
+
+    /**
+     * Configures the snapshots of the state of the algorithms, which let an
+     * interrupted execution be resumed from its latest snapshot. Executions
+     * with mini-batches take no snapshots.
+     *
+     * @param period number of generations between snapshots, 0 for taking no
+     * snapshots.
+     */
+    public void setSnapshotPeriod(int period) {
+        this.snapshotPeriod = period;
+    }
+
+    /**
+     * Configures the tuning of the configurations with successive halving,
+     * which runs a sample of the configurations instead of all of them.
+     *
+     * @param tuning TRUE for tuning the configurations, FALSE for running
+     * every configuration.
+     * @param samples number of configurations sampled, at least 1.
+     * @param eta reduction factor of the configurations and the budget between
+     * rounds, at least 2.
+     */
+    public void setTuning(boolean tuning, int samples, int eta) {
+        this.tuning = tuning;
+        this.tuningSamples = Math.max(1, samples);
+        this.tuningEta = Math.max(2, eta);
+    }
+
     @Override
     public String toString() {
         String str = "=========================================================";
@@ -417,7 +1191,20 @@ public class Experiment {
         str += "\nSelector: " + paramSelector.getValues();
         str += "\nEvaluator-RegressionMetric: " + paramRegressionMetric.getValues();
         str += "\nEvaluator-TestFunction: " + paramTestFunction.getValues();
-        str += "\nNumber of successful executions: " + executionsResults.size();
+        str += "\nNumber of successful executions: " + numSuccessfulExecutions;
+        if (racing) {
+            str += "\nRacing: " + racingEliminated + " of " + racingConfigurations
+                    + " configurations dropped (alpha " + racingAlpha + ", " + racingMinRounds
+                    + " minimum rounds), " + racingRepetitionsSaved + " repetitions saved";
+        }
+        if (tuning && tuningReport != null) {
+            str += "\nTuning: " + tuningSampled + " configurations sampled, "
+                    + tuningExecutions + " repetitions run (eta " + tuningEta + ")";
+            str += "\nBest configurations:";
+            for (String best : tuningReport) {
+                str += "\n" + best;
+            }
+        }
         return str;
     }
 
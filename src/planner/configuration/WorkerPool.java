@@ -0,0 +1,488 @@
+package planner.configuration;
+
+import exceptions.ExperimentFormatException;
+import exceptions.IncompatibleConfigurationException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import planner.utils.ExecutionResults;
+import planner.utils.Reader;
+
+/**
+ * WorkerPool runs the configurations of the experiments in worker processes,
+ * so a big grid is not limited by the heap of a single JVM. The coordinator
+ * listens on a TCP port of the loopback interface and launches the workers
+ * with its own class path and working directory. Each worker connects, runs
+ * one task at a time and sends back its results. A task is a call of
+ * Experiment.runExecution: a configuration, its repetitions and its seed, so
+ * the results do not depend on the process running it.
+ * <p>
+ * A worker running a task sends a heartbeat every quarter of the timeout, so
+ * a worker which sends nothing during the timeout is taken as hung and
+ * killed. The task of a worker whose connection is lost is given to another
+ * worker, and a worker process which exits is relaunched while the limit of
+ * relaunches is not reached. Once every worker is lost, the pending tasks
+ * fail so the coordinator runs them itself.
+ * <p>
+ * The messages are written with DataOutput: the worker starts with MAGIC,
+ * the token of the pool, received in the TOKEN environment variable so it is
+ * not shown in the command line, and its process id. The coordinator sends
+ * TASK followed by the index of the experiment, the configuration, the first
+ * repetition, the number of repetitions and the seed, or STOP, and the worker
+ * answers each task with any number of HEARTBEAT and then RESULT, its score
+ * and the results of its successful executions.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class WorkerPool implements Closeable {
+
+    private static final int MAGIC = 0x44455750;
+    private static final byte STOP = 0;
+    private static final byte TASK = 1;
+    private static final byte HEARTBEAT = 2;
+    private static final byte RESULT = 3;
+
+    /**
+     * Environment variable with the token of the pool in the workers.
+     */
+    private static final String TOKEN = "DEALIB_WORKER_TOKEN";
+
+    /**
+     * Heartbeats sent by a worker during each timeout.
+     */
+    private static final int HEARTBEATS = 4;
+
+    /**
+     * Seconds waited for a worker to exit after sending it STOP.
+     */
+    private static final int STOP_TIMEOUT = 10;
+
+    /**
+     * Task taken by a connection for sending STOP to its worker.
+     */
+    private static final Task STOP_TASK = new Task(-1, null, 0, 0, 0);
+
+    private final ServerSocket server;
+    private final ArrayList<Process> processes;
+    private final LinkedBlockingDeque<Task> queue;
+    private final long token;
+    private final int timeout;
+    private final int parallelism;
+    private int relaunches;
+    private int connected;
+    private boolean failed;
+    private boolean closing;
+
+    /**
+     * Launches the worker processes and waits for their connections in the
+     * background.
+     *
+     * @param workers number of worker processes.
+     * @param port port of the coordinator, 0 for any free port.
+     * @param timeout seconds without messages after which a worker running a
+     * task is taken as hung, 0 for waiting forever.
+     * @param relaunches number of times the worker processes which exit are
+     * relaunched, in total.
+     * @throws IOException if the port cannot be opened or a worker cannot be
+     * launched.
+     */
+    public WorkerPool(int workers, int port, int timeout, int relaunches) throws IOException {
+        server = new ServerSocket(port, workers, InetAddress.getLoopbackAddress());
+        queue = new LinkedBlockingDeque<>();
+        processes = new ArrayList<>();
+        token = new SecureRandom().nextLong();
+        this.timeout = (int) TimeUnit.SECONDS.toMillis(Math.max(0, timeout));
+        this.relaunches = Math.max(0, relaunches);
+        // The processors are shared by the workers of the host.
+        parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / workers);
+
+        Thread acceptor = new Thread(this::accept, "WorkerPool-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        try {
+            for (int i = 0; i < workers; i++) {
+                launch();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a task to the queue of the workers.
+     *
+     * @param experiment index of the experiment.
+     * @param config configuration of the executions.
+     * @param firstRepetition index of the first repetition run.
+     * @param repetitions number of repetitions.
+     * @param seed seed of the random object while creating the executions.
+     * @return future with the results of the task, completed exceptionally if
+     * every worker is lost before running it.
+     */
+    public synchronized CompletableFuture<TaskResult> submit(int experiment, ExecutionConfig config,
+            int firstRepetition, int repetitions, long seed) {
+        Task task = new Task(experiment, config, firstRepetition, repetitions, seed);
+        if (failed) {
+            task.result.completeExceptionally(new IOException("No workers left"));
+        } else {
+            queue.add(task);
+        }
+        return task.result;
+    }
+
+    /**
+     * Stops the workers and closes the port of the coordinator.
+     */
+    @Override
+    public void close() {
+        ArrayList<Process> stopped;
+        synchronized (this) {
+            closing = true;
+            stopped = new ArrayList<>(processes);
+        }
+        for (int i = 0; i < stopped.size(); i++) {
+            queue.add(STOP_TASK);
+        }
+        for (Process process : stopped) {
+            try {
+                if (!process.waitFor(STOP_TIMEOUT, TimeUnit.SECONDS)) {
+                    process.destroy();
+                }
+            } catch (InterruptedException e) {
+                process.destroy();
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            System.err.println("[WorkerPool::close]: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Launches a worker process with the class path and the working directory
+     * of the coordinator.
+     *
+     * @throws IOException if the process cannot be launched.
+     */
+    private synchronized void launch() throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "planner.ExperimentWorker", server.getInetAddress().getHostAddress(),
+                Integer.toString(server.getLocalPort()), Integer.toString(parallelism),
+                Integer.toString(timeout / HEARTBEATS));
+        builder.environment().put(TOKEN, Long.toString(token));
+        Process process = builder.inheritIO().start();
+        processes.add(process);
+        process.onExit().thenRun(() -> exited(process));
+    }
+
+    /**
+     * Relaunches a worker process which exited, unless the pool is closing or
+     * the limit of relaunches is reached.
+     *
+     * @param process worker process which exited.
+     */
+    private synchronized void exited(Process process) {
+        processes.remove(process);
+        if (!closing && relaunches > 0) {
+            relaunches--;
+            System.err.println("[WorkerPool::exited]: worker " + process.pid() + " exited with "
+                    + process.exitValue() + ", relaunching it.");
+            try {
+                launch();
+            } catch (IOException e) {
+                System.err.println("[WorkerPool::exited]: " + e.getMessage());
+            }
+        }
+        checkWorkers();
+    }
+
+    /**
+     * Kills a worker process, whose exit relaunches it.
+     *
+     * @param pid process id of the worker.
+     */
+    private synchronized void kill(long pid) {
+        for (Process process : processes) {
+            if (process.pid() == pid) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Accepts the connections of the workers, each one served by its own
+     * thread.
+     */
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread thread = new Thread(() -> serve(socket), "WorkerPool-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("[WorkerPool::accept]: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the tasks of the queue to a worker until it is stopped. If the
+     * connection is lost, the task being run is put back at the head of the
+     * queue, and a worker which timed out is killed.
+     *
+     * @param socket connection of the worker.
+     */
+    private void serve(Socket socket) {
+        boolean registered = false;
+        long pid = -1;
+        Task task = null;
+        try (Socket s = socket) {
+            s.setSoTimeout(timeout);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            if (in.readInt() != MAGIC || in.readLong() != token) {
+                throw new IOException("Unknown worker " + s.getRemoteSocketAddress());
+            }
+            pid = in.readLong();
+            synchronized (this) {
+                connected++;
+                registered = true;
+            }
+            while (true) {
+                task = queue.take();
+                if (task == STOP_TASK) {
+                    task = null;
+                    out.writeByte(STOP);
+                    out.flush();
+                    return;
+                }
+                out.writeByte(TASK);
+                out.writeInt(task.experiment);
+                task.config.write(out);
+                out.writeInt(task.firstRepetition);
+                out.writeInt(task.repetitions);
+                out.writeLong(task.seed);
+                out.flush();
+
+                byte reply;
+                while ((reply = in.readByte()) == HEARTBEAT) {
+                    // The worker is still running the task.
+                }
+                if (reply != RESULT) {
+                    throw new IOException("Unknown message " + reply + " from worker " + pid);
+                }
+                double score = in.readDouble();
+                int size = in.readInt();
+                ArrayList<ExecutionResults> results = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    results.add(ExecutionResults.read(in));
+                }
+                task.result.complete(new TaskResult(score, results));
+                task = null;
+            }
+        } catch (SocketTimeoutException e) {
+            System.err.println("[WorkerPool::serve]: worker " + pid + " timed out, killing it.");
+            kill(pid);
+        } catch (IOException e) {
+            System.err.println("[WorkerPool::serve]: worker lost, " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (task != null) {
+                queue.addFirst(task);
+            }
+            if (registered) {
+                synchronized (this) {
+                    connected--;
+                }
+            }
+            checkWorkers();
+        }
+    }
+
+    /**
+     * Fails the pending tasks if no worker is connected and every worker
+     * process has exited.
+     */
+    private synchronized void checkWorkers() {
+        if (connected > 0 || processes.stream().anyMatch(Process::isAlive)) {
+            return;
+        }
+        failed = true;
+        Task task;
+        while ((task = queue.poll()) != null) {
+            if (task != STOP_TASK) {
+                task.result.completeExceptionally(new IOException("No workers left"));
+            }
+        }
+    }
+
+    /**
+     * Runs the tasks sent by a coordinator until it sends STOP or the
+     * connection is closed. Every experiment is built first, in order, so
+     * they get the same identifiers as in the coordinator.
+     *
+     * @param host address of the coordinator.
+     * @param port port of the coordinator.
+     * @param heartbeat milliseconds between the heartbeats sent while running
+     * a task, 0 for not sending them.
+     * @throws IOException if the connection fails or the token of the
+     * coordinator is missing.
+     */
+    public static void work(String host, int port, int heartbeat) throws IOException {
+        String token = System.getenv(TOKEN);
+        if (token == null) {
+            throw new IOException("Missing " + TOKEN);
+        }
+        Experiment[] experiments = new Experiment[Reader.getNumExperiments()];
+        for (int i = 0; i < experiments.length; i++) {
+            try {
+                experiments[i] = Reader.buildExperiment(Reader.loadExperimentProperties(i));
+            } catch (IncompatibleConfigurationException | ExperimentFormatException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+
+        try (Socket socket = new Socket(host, port)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(MAGIC);
+            out.writeLong(Long.parseLong(token));
+            out.writeLong(ProcessHandle.current().pid());
+            out.flush();
+            ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "WorkerPool-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            while (in.readByte() == TASK) {
+                int experiment = in.readInt();
+                ExecutionConfig config = ExecutionConfig.read(in);
+                int firstRepetition = in.readInt();
+                int repetitions = in.readInt();
+                long seed = in.readLong();
+
+                ScheduledFuture<?> beats = heartbeat > 0 ? heartbeats.scheduleAtFixedRate(
+                        () -> sendHeartbeat(out), heartbeat, heartbeat, TimeUnit.MILLISECONDS) : null;
+                ArrayList<ExecutionResults> results = new ArrayList<>();
+                double score;
+                try {
+                    score = experiments[experiment].runTask(config, firstRepetition,
+                            repetitions, results, seed);
+                } finally {
+                    if (beats != null) {
+                        beats.cancel(false);
+                    }
+                }
+                synchronized (out) {
+                    out.writeByte(RESULT);
+                    out.writeDouble(score);
+                    out.writeInt(results.size());
+                    for (ExecutionResults executionResults : results) {
+                        executionResults.write(out);
+                    }
+                    out.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a heartbeat to the coordinator. A failure is left to the thread
+     * running the tasks, which finds it when sending the results.
+     *
+     * @param out stream of the connection.
+     */
+    private static void sendHeartbeat(DataOutputStream out) {
+        synchronized (out) {
+            try {
+                out.writeByte(HEARTBEAT);
+                out.flush();
+            } catch (IOException e) {
+                // Found again when sending the results.
+            }
+        }
+    }
+
+    /**
+     * Results of a task run by a worker.
+     */
+    public static class TaskResult {
+
+        private final double score;
+        private final ArrayList<ExecutionResults> results;
+
+        TaskResult(double score, ArrayList<ExecutionResults> results) {
+            this.score = score;
+            this.results = results;
+        }
+
+        /**
+         * Gets the mean fitness of the solutions of the successful executions,
+         * see Experiment.runExecution.
+         *
+         * @return score of the task.
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Gets the results of the successful executions, in order.
+         *
+         * @return results of the executions.
+         */
+        public ArrayList<ExecutionResults> getResults() {
+            return results;
+        }
+    }
+
+    /**
+     * Task of the queue of the workers.
+     */
+    private static class Task {
+
+        private final int experiment;
+        private final ExecutionConfig config;
+        private final int firstRepetition;
+        private final int repetitions;
+        private final long seed;
+        private final CompletableFuture<TaskResult> result;
+
+        Task(int experiment, ExecutionConfig config, int firstRepetition,
+                int repetitions, long seed) {
+            this.experiment = experiment;
+            this.config = config;
+            this.firstRepetition = firstRepetition;
+            this.repetitions = repetitions;
+            this.seed = seed;
+            this.result = new CompletableFuture<>();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package planner.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BinaryDatasetFormat gathers the layout of the binary columnar files used for
+ * storing datasets, so they can be mapped into memory instead of being parsed
+ * each time they are loaded. All values are stored in little-endian order:
+ * <ul>
+ * <li>magic number (int) and version (int).</li>
+ * <li>number of instances (long) and number of attributes (int).</li>
+ * <li>length of the header in bytes (int), multiple of 8.</li>
+ * <li>relation name, description and one name by attribute, each one as its
+ * length in bytes (int) followed by its UTF-8 bytes.</li>
+ * <li>padding up to the length of the header.</li>
+ * <li>one column of doubles by attribute, each one with a value by
+ * instance.</li>
+ * </ul>
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class BinaryDatasetFormat {
+
+    /**
+     * Extension of the binary columnar dataset files.
+     */
+    public static final String EXTENSION = "dcol";
+
+    /**
+     * Magic number identifying the binary columnar dataset files ("DEFC").
+     */
+    public static final int MAGIC = 0x43464544;
+
+    /**
+     * Version of the layout.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Length in bytes of the fixed part of the header.
+     */
+    public static final int FIXED_HEADER_LENGTH = 24;
+
+    /**
+     * Byte order of every value stored.
+     */
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Constructor that cannot be used, only static members are provided.
+     */
+    private BinaryDatasetFormat() {
+
+    }
+
+    /**
+     * Checks if a path names a binary columnar dataset file.
+     *
+     * @param path path of the file.
+     * @return TRUE if the path has the extension of the binary format, FALSE
+     * otherwise.
+     */
+    public static boolean isBinaryDataset(String path) {
+        return path.toLowerCase().endsWith("." + EXTENSION);
+    }
+
+    /**
+     * Builds the complete header of a binary columnar file for a dataset.
+     *
+     * @param d dataset to be stored.
+     * @return buffer ready to be written, with the length of the header.
+     */
+    public static ByteBuffer encodeHeader(Dataset d) {
+        String[] attributes = d.getAttributes();
+        byte[][] strings = new byte[attributes.length + 2][];
+        strings[0] = d.getName().getBytes(StandardCharsets.UTF_8);
+        strings[1] = d.getDescription().getBytes(StandardCharsets.UTF_8);
+        int length = FIXED_HEADER_LENGTH + 4 * strings.length;
+        for (int i = 0; i < attributes.length; i++) {
+            strings[i + 2] = attributes[i].getBytes(StandardCharsets.UTF_8);
+        }
+        for (byte[] s : strings) {
+            length += s.length;
+        }
+        length = (length + 7) & ~7;
+
+        ByteBuffer header = ByteBuffer.allocate(length).order(ORDER);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(d.getNumInstances());
+        header.putInt(attributes.length);
+        header.putInt(length);
+        for (byte[] s : strings) {
+            header.putInt(s.length);
+            header.put(s);
+        }
+        header.position(0);
+        return header;
+    }
+
+    /**
+     * Reads a string stored as its length and its UTF-8 bytes.
+     *
+     * @param header buffer positioned at the beginning of the string.
+     * @return the string read.
+     */
+    public static String readString(ByteBuffer header) {
+        byte[] bytes = new byte[header.getInt()];
+        header.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,316 @@
+package planner.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * BinaryTraceFormat gathers the layout of the binary files storing the
+ * results of the executions of an Experiment, an alternative to the CSV files
+ * much smaller for long convergence traces. Values are written with
+ * DataOutput, in big-endian order. A file is:
+ * <ul>
+ * <li>magic number (int) and version (int).</li>
+ * <li>one record by execution: its length in bytes (int) followed by the
+ * results written by ExecutionResults.writeCompact.</li>
+ * </ul>
+ * Each convergence trace (NP, F, CR and fitness) is stored as its number of
+ * observations (int), the length in bytes of its columns (int) and its
+ * columns packed as a stream of bits, one after another:
+ * <ul>
+ * <li>values and times as doubles compressed with the XOR scheme of Gorilla:
+ * the first one is stored whole and the rest as the XOR with the previous one,
+ * a single bit if they are equal or only its meaningful bits otherwise.</li>
+ * <li>generations and FEs as integers compressed with delta-of-delta: the
+ * first one is stored whole and the rest as the change of the difference with
+ * the previous one, a single bit if it does not change.</li>
+ * </ul>
+ * Values of the same column usually change slowly or not at all between
+ * observations, so most of them take a few bits.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class BinaryTraceFormat {
+
+    /**
+     * Extension of the binary trace files.
+     */
+    public static final String EXTENSION = "dtrc";
+
+    /**
+     * Magic number identifying the binary trace files ("DETR").
+     */
+    public static final int MAGIC = 0x52544544;
+
+    /**
+     * Version of the layout.
+     */
+    public static final int VERSION = 3;
+
+    /**
+     * Constructor that cannot be used, only static members are provided.
+     */
+    private BinaryTraceFormat() {
+
+    }
+
+    /**
+     * Writes a convergence trace, each observation with the value, the time,
+     * the generation and the FE when it was observed.
+     *
+     * @param trace observations of the trace.
+     * @param out destination of the trace.
+     * @throws IOException if the trace cannot be written.
+     */
+    public static void writeTrace(Trace trace, DataOutput out) throws IOException {
+        int n = trace.size();
+        out.writeInt(n);
+        if (n == 0) {
+            return;
+        }
+        BitOutput bits = new BitOutput();
+        double[] column = new double[n];
+        for (int c = 0; c < 4; c++) {
+            for (int i = 0; i < n; i++) {
+                column[i] = c == 0 ? trace.getValue(i) : c == 1 ? trace.getTime(i)
+                        : c == 2 ? trace.getGeneration(i) : trace.getFE(i);
+            }
+            if (c < 2) {
+                writeDoubles(column, bits);
+            } else {
+                writeIntegers(column, bits);
+            }
+        }
+        out.writeInt(bits.size());
+        bits.writeTo(out);
+    }
+
+    /**
+     * Reads a convergence trace written by writeTrace.
+     *
+     * @param in source of the trace.
+     * @param trace trace where the observations are added.
+     * @throws IOException if the trace cannot be read.
+     */
+    public static void readTrace(DataInput in, Trace trace) throws IOException {
+        int n = in.readInt();
+        if (n == 0) {
+            return;
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        BitInput bits = new BitInput(bytes);
+        double[][] columns = new double[4][n];
+        for (int c = 0; c < 4; c++) {
+            if (c < 2) {
+                readDoubles(columns[c], bits);
+            } else {
+                readIntegers(columns[c], bits);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            trace.add(columns[0][i], (long) columns[1][i], (int) columns[2][i], (int) columns[3][i]);
+        }
+    }
+
+    /**
+     * Writes a column of doubles with the XOR scheme: 0 if the value is equal
+     * to the previous one; 10 and the meaningful bits of the XOR if they fit
+     * in the window of the previous XOR; 11, the number of leading zeros (5
+     * bits), the number of meaningful bits minus one (6 bits) and the
+     * meaningful bits otherwise.
+     */
+    private static void writeDoubles(double[] column, BitOutput bits) {
+        long previous = Double.doubleToRawLongBits(column[0]);
+        bits.write(previous, 64);
+        int leading = -1;
+        int trailing = 0;
+        for (int i = 1; i < column.length; i++) {
+            long value = Double.doubleToRawLongBits(column[i]);
+            long xor = value ^ previous;
+            if (xor == 0) {
+                bits.write(0, 1);
+            } else {
+                int xorLeading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int xorTrailing = Long.numberOfTrailingZeros(xor);
+                if (leading >= 0 && xorLeading >= leading && xorTrailing >= trailing) {
+                    bits.write(0b10, 2);
+                    bits.write(xor >>> trailing, 64 - leading - trailing);
+                } else {
+                    int meaningful = 64 - xorLeading - xorTrailing;
+                    bits.write(0b11, 2);
+                    bits.write(xorLeading, 5);
+                    bits.write(meaningful - 1, 6);
+                    bits.write(xor >>> xorTrailing, meaningful);
+                    leading = xorLeading;
+                    trailing = xorTrailing;
+                }
+            }
+            previous = value;
+        }
+    }
+
+    private static void readDoubles(double[] column, BitInput bits) throws IOException {
+        long previous = bits.read(64);
+        column[0] = Double.longBitsToDouble(previous);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < column.length; i++) {
+            if (bits.read(1) != 0) {
+                if (bits.read(1) != 0) {
+                    leading = (int) bits.read(5);
+                    trailing = 64 - leading - ((int) bits.read(6) + 1);
+                }
+                previous ^= bits.read(64 - leading - trailing) << trailing;
+            }
+            column[i] = Double.longBitsToDouble(previous);
+        }
+    }
+
+    /**
+     * Writes a column of integers with delta-of-delta: 0 if the difference
+     * with the previous value does not change; 10, 110 or 1110 and the change
+     * in 7, 9 or 12 bits if it fits; 1111 and the whole change otherwise.
+     */
+    private static void writeIntegers(double[] column, BitOutput bits) {
+        long previous = (long) column[0];
+        bits.write(previous, 64);
+        long delta = 0;
+        for (int i = 1; i < column.length; i++) {
+            long value = (long) column[i];
+            long deltaOfDelta = value - previous - delta;
+            if (deltaOfDelta == 0) {
+                bits.write(0, 1);
+            } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+                bits.write(0b10, 2);
+                bits.write(deltaOfDelta + 63, 7);
+            } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+                bits.write(0b110, 3);
+                bits.write(deltaOfDelta + 255, 9);
+            } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+                bits.write(0b1110, 4);
+                bits.write(deltaOfDelta + 2047, 12);
+            } else {
+                bits.write(0b1111, 4);
+                bits.write(deltaOfDelta, 64);
+            }
+            delta = value - previous;
+            previous = value;
+        }
+    }
+
+    private static void readIntegers(double[] column, BitInput bits) throws IOException {
+        long previous = bits.read(64);
+        column[0] = previous;
+        long delta = 0;
+        for (int i = 1; i < column.length; i++) {
+            long deltaOfDelta;
+            if (bits.read(1) == 0) {
+                deltaOfDelta = 0;
+            } else if (bits.read(1) == 0) {
+                deltaOfDelta = bits.read(7) - 63;
+            } else if (bits.read(1) == 0) {
+                deltaOfDelta = bits.read(9) - 255;
+            } else if (bits.read(1) == 0) {
+                deltaOfDelta = bits.read(12) - 2047;
+            } else {
+                deltaOfDelta = bits.read(64);
+            }
+            delta += deltaOfDelta;
+            previous += delta;
+            column[i] = previous;
+        }
+    }
+
+    /**
+     * Stream of bits written most significant bit first.
+     */
+    private static final class BitOutput {
+
+        private byte[] bytes = new byte[256];
+        private int size;
+        private int partial;
+        private int used;
+
+        /**
+         * Writes the lowest bits of a value.
+         *
+         * @param value the value.
+         * @param count number of bits, from 1 to 64.
+         */
+        void write(long value, int count) {
+            while (count > 0) {
+                int n = Math.min(8 - used, count);
+                partial |= (int) ((value >>> (count - n)) & ((1 << n) - 1)) << (8 - used - n);
+                used += n;
+                count -= n;
+                if (used == 8) {
+                    if (size == bytes.length) {
+                        bytes = Arrays.copyOf(bytes, 2 * size);
+                    }
+                    bytes[size++] = (byte) partial;
+                    partial = 0;
+                    used = 0;
+                }
+            }
+        }
+
+        /**
+         * Gets the length of the stream in bytes, the last one padded with
+         * zeros.
+         */
+        int size() {
+            return size + (used > 0 ? 1 : 0);
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.write(bytes, 0, size);
+            if (used > 0) {
+                out.writeByte(partial);
+            }
+        }
+    }
+
+    /**
+     * Stream of bits read most significant bit first.
+     */
+    private static final class BitInput {
+
+        private final byte[] bytes;
+        private int position;
+        private int current;
+        private int available;
+
+        BitInput(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Reads a value.
+         *
+         * @param count number of bits, from 1 to 64.
+         * @return the value in the lowest bits.
+         * @throws IOException if the stream ends before.
+         */
+        long read(int count) throws IOException {
+            long value = 0;
+            while (count > 0) {
+                if (available == 0) {
+                    if (position == bytes.length) {
+                        throw new IOException("BinaryTraceFormat[Unexpected end of trace.]");
+                    }
+                    current = bytes[position++] & 0xFF;
+                    available = 8;
+                }
+                int n = Math.min(available, count);
+                value = (value << n) | ((current >>> (available - n)) & ((1 << n) - 1));
+                available -= n;
+                count -= n;
+            }
+            return value;
+        }
+    }
+}
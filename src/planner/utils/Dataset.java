@@ -1,8 +1,18 @@
 package planner.utils;
 
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
-
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dataset is a class representing the data of a problem. Its content cannot be
+ * modified once loaded, so the same Dataset can be shared by every execution.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
 public class Dataset {
 
     private final String path;
@@ -10,76 +20,199 @@ public class Dataset {
     private final String description;
     private final String format;
     private final String[] attributes;
-    private final ArrayList<double[]> instances;
+    private final int numInstances;
+
+    /**
+     * Data of the dataset stored by attribute: each column holds the values of
+     * one attribute for every instance. Columns may live on the heap or be
+     * mapped from a binary columnar file.
+     */
+    private final DoubleBuffer[] columns;
+
+    /**
+     * Instances of the dataset stored by rows, only built when requested.
+     */
+    private List<double[]> instances;
 
     public Dataset(String datasetPath, String datasetName, String datasetFormat,
             String datasetDescription, String[] datasetAttributes, double[][] data) {
+        this(datasetPath, datasetName, datasetFormat, datasetDescription,
+                datasetAttributes, toColumns(data, datasetAttributes.length), data.length);
+    }
+
+    /**
+     * Constructor of a Dataset given its data stored by columns.
+     *
+     * @param datasetPath path of the file containing the dataset.
+     * @param datasetName name of the dataset.
+     * @param datasetFormat format of the file containing the dataset.
+     * @param datasetDescription description of the dataset.
+     * @param datasetAttributes names of the attributes.
+     * @param datasetColumns one buffer of values by attribute.
+     * @param datasetNumInstances number of instances.
+     */
+    public Dataset(String datasetPath, String datasetName, String datasetFormat,
+            String datasetDescription, String[] datasetAttributes,
+            DoubleBuffer[] datasetColumns, int datasetNumInstances) {
         path = datasetPath;
         name = datasetName;
         format = datasetFormat;
         description = datasetDescription;
         attributes = datasetAttributes;
-        instances  = new ArrayList<>();
-        instances.addAll(Arrays.asList(data));
+        numInstances = datasetNumInstances;
+        columns = new DoubleBuffer[datasetColumns.length];
+        for (int j = 0; j < columns.length; j++) {
+            columns[j] = datasetColumns[j].asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Transposes a matrix of instances into one heap buffer by attribute.
+     *
+     * @param data instances stored by rows.
+     * @param numAttributes number of attributes of each instance.
+     * @return the data stored by columns.
+     */
+    private static DoubleBuffer[] toColumns(double[][] data, int numAttributes) {
+        DoubleBuffer[] cols = new DoubleBuffer[numAttributes];
+        for (int j = 0; j < numAttributes; j++) {
+            double[] col = new double[data.length];
+            for (int i = 0; i < data.length; i++) {
+                col[i] = data[i][j];
+            }
+            cols[j] = DoubleBuffer.wrap(col);
+        }
+        return cols;
     }
 
     public String getPath() {
         return path;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
     public int getNumInstances() {
-        return instances.size();
+        return numInstances;
     }
 
     public int getNumAttributes() {
         return attributes.length;
     }
 
-    public ArrayList<double[]> getInstances() {
-        return instances;
+    /**
+     * Gets the instances of the dataset stored by rows. Rows are built the
+     * first time they are requested and kept for later calls, so the
+     * DatasetRegistry is told the new heap memory used by the Dataset.
+     *
+     * @return list of instances.
+     */
+    public List<double[]> getInstances() {
+        List<double[]> rows;
+        boolean built = false;
+        synchronized (this) {
+            if (instances == null) {
+                ArrayList<double[]> list = new ArrayList<>(numInstances);
+                for (int i = 0; i < numInstances; i++) {
+                    list.add(getInstance(i));
+                }
+                instances = Collections.unmodifiableList(list);
+                built = true;
+            }
+            rows = instances;
+        }
+        // Outside the lock of the Dataset, since the registry takes its own
+        // lock before the one of the Dataset.
+        if (built) {
+            DatasetRegistry.resized(this);
+        }
+        return rows;
     }
 
+    /**
+     * Gets a new array with the values of all the attributes of an instance.
+     *
+     * @param i index of the instance.
+     * @return values of the instance.
+     */
     public double[] getInstance(int i) {
-        return instances.get(i);
+        double[] instance = new double[attributes.length];
+        for (int j = 0; j < attributes.length; j++) {
+            instance[j] = columns[j].get(i);
+        }
+        return instance;
+    }
+
+    /**
+     * Gets a view of the values of an attribute for every instance.
+     *
+     * @param attribute index of the attribute.
+     * @return independent view of the column of the attribute.
+     */
+    public DoubleBuffer getColumn(int attribute) {
+        return columns[attribute].duplicate();
     }
 
     public String[] getAttributes() {
-        return attributes;
+        return attributes.clone();
     }
 
-    public double[] getPredictionValues() {
-        int N = instances.size();
-        double[] predictionValues = new double[N];
-        for (int i = 0; i < N; i++) {
-            predictionValues[i] = getPredictionValue(i);
+    /**
+     * Gets an estimation of the heap memory used by the data of the Dataset.
+     * Mapped columns are not counted since they are kept by the operating
+     * system.
+     *
+     * @return number of bytes.
+     */
+    public synchronized long getHeapBytes() {
+        long bytes = 0;
+        for (DoubleBuffer column : columns) {
+            if (!column.isDirect()) {
+                bytes += (long) column.capacity() * Double.BYTES;
+            }
         }
-        return predictionValues;
+        if (instances != null) {
+            bytes += (long) numInstances * (16 + attributes.length * Double.BYTES);
+        }
+        return bytes;
+    }
+
+    public double[] getPredictionValues() {
+        return getDataFromAttribute(attributes.length - 1);
     }
 
     public double getPredictionValue(int instance) {
-        return instances.get(instance)[attributes.length - 1];
+        return columns[attributes.length - 1].get(instance);
     }
 
     public double getData(int instance, int attribute) {
-        return instances.get(instance)[attribute];
+        return columns[attribute].get(instance);
     }
 
     public double[] getDataFromInstance(int instance) {
-        return instances.get(instance);
+        return getInstance(instance);
     }
-    
+
     public double[] getDataInput(int instance) {
         double[] input = new double[getNumAttributes() - 1];
-        System.arraycopy(instances.get(instance), 0, input, 0, input.length);
+        for (int j = 0; j < input.length; j++) {
+            input[j] = columns[j].get(instance);
+        }
         return input;
     }
 
     public double[] getDataFromAttribute(int attribute) {
-        int numInstances = instances.size();
         double[] attributeData = new double[numInstances];
-        for (int i = 0; i < numInstances; i++) {
-            attributeData[i] = instances.get(i)[attribute];
-        }
+        columns[attribute].duplicate().position(0).get(attributeData);
         return attributeData;
     }
 
@@ -90,7 +223,7 @@ public class Dataset {
         info += "Path: " + path + "\n";
         info += "Description:\n" + description + "\n";
         info += "Number of attributes: " + attributes.length + ".\n";
-        info += "Number of instances: " + instances.size() + ".\n";
+        info += "Number of instances: " + numInstances + ".\n";
         info += "Attributes loaded:\n" + PrintingTools.toString(attributes) + "\n";
         info += "================================================\n";
         return info;
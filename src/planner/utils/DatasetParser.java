@@ -0,0 +1,518 @@
+package planner.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * DatasetParser is a class for parsing datasets stored as text: ARFF files,
+ * with dense or sparse ({index value, ...}) instances, and CSV files whose
+ * first line names the attributes. The data section is read through mapped
+ * buffers, split at line boundaries and parsed in parallel straight into one
+ * array of doubles by attribute, without building intermediate strings for
+ * the numbers. Values which are not numeric are stored as NaN.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class DatasetParser {
+
+    /**
+     * Minimum length in bytes of the chunks parsed in parallel.
+     */
+    private static final long MIN_CHUNK_LENGTH = 1L << 20;
+
+    /**
+     * Maximum length in bytes of the chunks parsed in parallel.
+     */
+    private static final long MAX_CHUNK_LENGTH = 1L << 28;
+
+    /**
+     * Powers of ten exactly representable as doubles.
+     */
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Constructor that cannot be used, only static members are provided.
+     */
+    private DatasetParser() {
+
+    }
+
+    /**
+     * Parses a dataset with ARFF or CSV format, depending on the extension of
+     * the file.
+     *
+     * @param path path of the file containing the dataset.
+     * @return a Dataset object.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Dataset parse(String path) throws IOException {
+        String[] strings = path.split("\\.");
+        String format = strings[strings.length - 1];
+        boolean csv = format.equalsIgnoreCase("csv");
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, csv);
+            int numAttributes = header.attributes.size();
+            long[] bounds = split(channel, header.dataStart, channel.size());
+            int numChunks = bounds.length - 1;
+
+            ByteBuffer[] chunks = new ByteBuffer[numChunks];
+            for (int c = 0; c < numChunks; c++) {
+                chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]);
+            }
+
+            // First pass: number of instances of each chunk.
+            int[] counts = new int[numChunks];
+            IntStream.range(0, numChunks).parallel().forEach(c -> counts[c] = countInstances(chunks[c]));
+            int[] offsets = new int[numChunks];
+            long numInstances = 0;
+            for (int c = 0; c < numChunks; c++) {
+                offsets[c] = (int) numInstances;
+                numInstances += counts[c];
+            }
+            if (numInstances > Integer.MAX_VALUE) {
+                throw new IOException("Too many instances in " + path + ".");
+            }
+
+            // Second pass: values of each chunk stored from its first instance.
+            double[][] data = new double[numAttributes][(int) numInstances];
+            IntStream.range(0, numChunks).parallel().forEach(c
+                    -> new ChunkParser(chunks[c], data).parse(offsets[c]));
+
+            DoubleBuffer[] columns = new DoubleBuffer[numAttributes];
+            for (int j = 0; j < numAttributes; j++) {
+                columns[j] = DoubleBuffer.wrap(data[j]);
+            }
+            return new Dataset(path, header.name, format, header.description,
+                    header.attributes.toArray(new String[numAttributes]), columns, (int) numInstances);
+        }
+    }
+
+    /**
+     * Reads the header of the file: the relation, the description and the
+     * attributes of an ARFF file or the first line of a CSV file.
+     *
+     * @param channel channel of the file.
+     * @param csv TRUE if the file has CSV format, FALSE if it has ARFF format.
+     * @return the header read.
+     * @throws IOException if the file cannot be read.
+     */
+    private static Header readHeader(FileChannel channel, boolean csv) throws IOException {
+        Header header = new Header();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long position = 0;
+        boolean stopHeader = false;
+
+        while (!stopHeader && channel.read(buffer, position) > 0) {
+            buffer.flip();
+            while (!stopHeader && buffer.hasRemaining()) {
+                byte b = buffer.get();
+                position++;
+                if (b == '\n') {
+                    stopHeader = processHeaderLine(header,
+                            new String(line.toByteArray(), StandardCharsets.UTF_8).trim(), csv);
+                    line.reset();
+                } else {
+                    line.write(b);
+                }
+            }
+            buffer.clear();
+        }
+        if (!stopHeader) {
+            processHeaderLine(header, new String(line.toByteArray(), StandardCharsets.UTF_8).trim(), csv);
+        }
+        header.dataStart = position;
+
+        return header;
+    }
+
+    /**
+     * Processes a line of the header.
+     *
+     * @param header header being read.
+     * @param s trimmed line.
+     * @param csv TRUE if the file has CSV format, FALSE if it has ARFF format.
+     * @return TRUE if the line is the last one of the header, FALSE otherwise.
+     */
+    private static boolean processHeaderLine(Header header, String s, boolean csv) {
+        boolean stopHeader = false;
+        if (csv) {
+            if (!s.isEmpty()) {
+                for (String attribute : s.split(",")) {
+                    header.attributes.add(unquote(attribute.trim()));
+                }
+                stopHeader = true;
+            }
+        } else if (startsWithIgnoreCase(s, "@relation")) {
+            header.name = s.substring("@relation".length()).trim();
+        } else if (s.startsWith("%")) {
+            header.description += s.replace("%", "").trim() + "\n";
+        } else if (startsWithIgnoreCase(s, "@attribute")) {
+            String declaration = s.substring("@attribute".length()).trim();
+            if (declaration.startsWith("'") || declaration.startsWith("\"")) {
+                int end = declaration.indexOf(declaration.charAt(0), 1);
+                header.attributes.add(declaration.substring(1, end < 0 ? declaration.length() : end));
+            } else {
+                header.attributes.add(declaration.split("\\s+")[0]);
+            }
+        } else if (startsWithIgnoreCase(s, "@data")) {
+            stopHeader = true;
+        }
+        return stopHeader;
+    }
+
+    private static boolean startsWithIgnoreCase(String s, String prefix) {
+        return s.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private static String unquote(String s) {
+        if (s.length() >= 2 && (s.charAt(0) == '"' || s.charAt(0) == '\'')
+                && s.charAt(s.length() - 1) == s.charAt(0)) {
+            return s.substring(1, s.length() - 1);
+        }
+        return s;
+    }
+
+    /**
+     * Splits the data section of the file into chunks which begin at the start
+     * of a line.
+     *
+     * @param channel channel of the file.
+     * @param start position of the first byte of the data section.
+     * @param end size of the file.
+     * @return positions where each chunk begins followed by the end position.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long[] split(FileChannel channel, long start, long end) throws IOException {
+        int parallelism = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        long target = Math.max(MIN_CHUNK_LENGTH, Math.min(MAX_CHUNK_LENGTH, (end - start) / (4L * parallelism)));
+        ArrayList<Long> bounds = new ArrayList<>();
+        bounds.add(start);
+        long next = start + target;
+        while (next < end) {
+            long lineStart = nextLineStart(channel, next, end);
+            if (lineStart >= end) {
+                break;
+            }
+            bounds.add(lineStart);
+            next = lineStart + target;
+        }
+        bounds.add(end);
+
+        long[] positions = new long[bounds.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = bounds.get(i);
+        }
+        return positions;
+    }
+
+    /**
+     * Finds the beginning of the first line which starts at a given position or
+     * after it.
+     *
+     * @param channel channel of the file.
+     * @param position position to start from.
+     * @param end size of the file.
+     * @return position of the beginning of the line, end if there is none.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long p = position - 1;
+        while (p < end) {
+            buffer.clear();
+            int n = channel.read(buffer, p);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return p + i + 1;
+                }
+            }
+            p += n;
+        }
+        return end;
+    }
+
+    /**
+     * Counts the instances stored in a chunk: lines which are neither empty
+     * nor comments.
+     *
+     * @param chunk chunk of the data section.
+     * @return number of instances.
+     */
+    private static int countInstances(ByteBuffer chunk) {
+        int count = 0;
+        int limit = chunk.limit();
+        int p = 0;
+        while (p < limit) {
+            byte b = chunk.get(p);
+            while ((b == ' ' || b == '\t' || b == '\r') && ++p < limit) {
+                b = chunk.get(p);
+            }
+            if (p < limit && b != '\n' && b != '%') {
+                count++;
+            }
+            while (p < limit && chunk.get(p) != '\n') {
+                p++;
+            }
+            p++;
+        }
+        return count;
+    }
+
+    /**
+     * Parses a number made of decimal digits, an optional sign, an optional
+     * decimal point and an optional exponent. Numbers which cannot be computed
+     * exactly from their digits are delegated to Double.parseDouble, so the
+     * result is always the same.
+     *
+     * @param b buffer containing the number.
+     * @param start position of the first character of the number.
+     * @param end position after the last character of the number.
+     * @return the number, NaN if the characters do not represent a number.
+     */
+    static double parseDouble(ByteBuffer b, int start, int end) {
+        int p = start;
+        boolean negative = false;
+        if (p < end && (b.get(p) == '-' || b.get(p) == '+')) {
+            negative = b.get(p) == '-';
+            p++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean exact = true;
+        boolean any = false;
+        byte c;
+        while (p < end && (c = b.get(p)) >= '0' && c <= '9') {
+            any = true;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                exact &= c == '0';
+            }
+            p++;
+        }
+        if (p < end && b.get(p) == '.') {
+            p++;
+            while (p < end && (c = b.get(p)) >= '0' && c <= '9') {
+                any = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    exact &= c == '0';
+                }
+                p++;
+            }
+        }
+        if (any && p < end && (b.get(p) == 'e' || b.get(p) == 'E')) {
+            p++;
+            boolean negativeExponent = false;
+            if (p < end && (b.get(p) == '-' || b.get(p) == '+')) {
+                negativeExponent = b.get(p) == '-';
+                p++;
+            }
+            int e = 0;
+            boolean anyExponent = false;
+            while (p < end && (c = b.get(p)) >= '0' && c <= '9') {
+                anyExponent = true;
+                e = Math.min(e * 10 + (c - '0'), 100000);
+                p++;
+            }
+            any = anyExponent;
+            exponent += negativeExponent ? -e : e;
+        }
+
+        if (!any || p != end) {
+            return parseToken(b, start, end);
+        }
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (exact && mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            value = exponent >= 0 ? mantissa * POW10[exponent] : mantissa / POW10[-exponent];
+        } else {
+            return parseToken(b, start, end);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a value which does not follow the plain decimal syntax.
+     *
+     * @param b buffer containing the value.
+     * @param start position of the first character of the value.
+     * @param end position after the last character of the value.
+     * @return the value, NaN if the characters do not represent a number.
+     */
+    private static double parseToken(ByteBuffer b, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = b.get(start + i);
+        }
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1).trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Header of a text dataset.
+     */
+    private static class Header {
+
+        private String name = "";
+        private String description = "";
+        private final ArrayList<String> attributes = new ArrayList<>();
+        private long dataStart;
+    }
+
+    /**
+     * Parser of the instances stored in a chunk of the data section.
+     */
+    private static class ChunkParser {
+
+        private final ByteBuffer b;
+        private final double[][] data;
+        private final int limit;
+        private int p;
+
+        private ChunkParser(ByteBuffer chunk, double[][] data) {
+            this.b = chunk;
+            this.data = data;
+            this.limit = chunk.limit();
+            this.p = 0;
+        }
+
+        /**
+         * Parses every instance of the chunk.
+         *
+         * @param firstInstance index of the first instance of the chunk.
+         */
+        private void parse(int firstInstance) {
+            int instance = firstInstance;
+            while (p < limit) {
+                skipBlanks();
+                if (p < limit && b.get(p) != '\n' && b.get(p) != '%') {
+                    if (b.get(p) == '{') {
+                        p++;
+                        parseSparse(instance++);
+                    } else {
+                        parseDense(instance++);
+                    }
+                }
+                while (p < limit && b.get(p) != '\n') {
+                    p++;
+                }
+                p++;
+            }
+        }
+
+        /**
+         * Parses an instance with one value by attribute separated by commas.
+         * Missing values are stored as NaN.
+         *
+         * @param instance index of the instance.
+         */
+        private void parseDense(int instance) {
+            int j = 0;
+            boolean endOfLine = false;
+            while (!endOfLine) {
+                skipBlanks();
+                int start = p;
+                while (p < limit && b.get(p) != ',' && b.get(p) != '\n') {
+                    p++;
+                }
+                endOfLine = p >= limit || b.get(p) == '\n';
+                if (j < data.length) {
+                    data[j][instance] = parseDouble(b, start, trimEnd(start, p));
+                }
+                j++;
+                if (!endOfLine) {
+                    p++;
+                }
+            }
+            for (; j < data.length; j++) {
+                data[j][instance] = Double.NaN;
+            }
+        }
+
+        /**
+         * Parses an instance with sparse format, {index value, ...}, where the
+         * attributes not listed are zero.
+         *
+         * @param instance index of the instance.
+         */
+        private void parseSparse(int instance) {
+            for (double[] column : data) {
+                column[instance] = 0.0;
+            }
+            boolean end = false;
+            while (!end) {
+                skipBlanks();
+                int index = 0;
+                boolean anyDigit = false;
+                byte c;
+                while (p < limit && (c = b.get(p)) >= '0' && c <= '9') {
+                    index = index * 10 + (c - '0');
+                    anyDigit = true;
+                    p++;
+                }
+                skipBlanks();
+                int start = p;
+                while (p < limit && b.get(p) != ',' && b.get(p) != '}' && b.get(p) != '\n') {
+                    p++;
+                }
+                if (anyDigit && index < data.length) {
+                    data[index][instance] = parseDouble(b, start, trimEnd(start, p));
+                }
+                end = p >= limit || b.get(p) != ',';
+                if (!end) {
+                    p++;
+                }
+            }
+        }
+
+        private void skipBlanks() {
+            byte c;
+            while (p < limit && ((c = b.get(p)) == ' ' || c == '\t' || c == '\r')) {
+                p++;
+            }
+        }
+
+        private int trimEnd(int start, int end) {
+            byte c;
+            while (end > start && ((c = b.get(end - 1)) == ' ' || c == '\t' || c == '\r')) {
+                end--;
+            }
+            return end;
+        }
+    }
+}
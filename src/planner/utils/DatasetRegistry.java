@@ -0,0 +1,170 @@
+package planner.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DatasetRegistry keeps the datasets loaded by the framework so every execution
+ * of every experiment shares the same read-only Dataset instead of loading the
+ * file again. Datasets are identified by their path and the last modification
+ * time of the file, so an updated file is loaded again. When the configured
+ * number of datasets or the configured amount of heap memory is exceeded, the
+ * least recently used datasets are dropped from the registry.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class DatasetRegistry {
+
+    /**
+     * Registered datasets by canonical path, in access order.
+     */
+    private static final LinkedHashMap<String, RegisteredDataset> DATASETS = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Maximum number of datasets kept.
+     */
+    private static int maxDatasets = Integer.MAX_VALUE;
+
+    /**
+     * Maximum number of heap bytes used by the datasets kept.
+     */
+    private static long maxBytes = Long.MAX_VALUE;
+
+    /**
+     * Heap bytes currently used by the datasets kept.
+     */
+    private static long usedBytes = 0;
+
+    /**
+     * Constructor that cannot be used, only static members are provided.
+     */
+    private DatasetRegistry() {
+
+    }
+
+    /**
+     * Sets the limits of the registry, dropping datasets if they are already
+     * exceeded.
+     *
+     * @param datasets maximum number of datasets kept.
+     * @param bytes maximum number of heap bytes used by the datasets kept.
+     */
+    public static synchronized void configure(int datasets, long bytes) {
+        maxDatasets = datasets;
+        maxBytes = bytes;
+        evict(null);
+    }
+
+    /**
+     * Gets the shared Dataset stored in a file, loading it if it has not been
+     * loaded yet or if the file has been modified since it was loaded.
+     *
+     * @param path path of the file containing the dataset.
+     * @return the shared Dataset, null if it cannot be loaded.
+     */
+    public static synchronized Dataset getDataset(String path) {
+        File file = new File(path);
+        String key = canonicalPath(file);
+        long lastModified = file.lastModified();
+
+        RegisteredDataset registered = DATASETS.get(key);
+        if (registered != null && registered.lastModified == lastModified) {
+            return registered.dataset;
+        }
+        if (registered != null) {
+            DATASETS.remove(key);
+            usedBytes -= registered.bytes;
+        }
+
+        Dataset dataset = Reader.loadDataset(path);
+        if (dataset != null) {
+            registered = new RegisteredDataset(dataset, lastModified);
+            DATASETS.put(key, registered);
+            usedBytes += registered.bytes;
+            evict(key);
+        }
+        return dataset;
+    }
+
+    /**
+     * Updates the heap bytes used by a registered dataset whose instances have
+     * been built by rows after it was registered, dropping datasets if the
+     * limits are exceeded.
+     *
+     * @param dataset the dataset, ignored if it is not registered.
+     */
+    static synchronized void resized(Dataset dataset) {
+        for (Map.Entry<String, RegisteredDataset> entry : DATASETS.entrySet()) {
+            RegisteredDataset registered = entry.getValue();
+            if (registered.dataset == dataset) {
+                long bytes = dataset.getHeapBytes();
+                usedBytes += bytes - registered.bytes;
+                registered.bytes = bytes;
+                evict(entry.getKey());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the canonical path of a file, resolving symbolic links, so every
+     * alias of the file is registered once.
+     *
+     * @param file the file.
+     * @return canonical path, or the normalized absolute path if the file
+     * cannot be resolved.
+     */
+    private static String canonicalPath(File file) {
+        try {
+            return file.toPath().toRealPath().toString();
+        } catch (IOException e) {
+            return file.getAbsoluteFile().toPath().normalize().toString();
+        }
+    }
+
+    /**
+     * Drops every registered dataset.
+     */
+    public static synchronized void clear() {
+        DATASETS.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * Drops the least recently used datasets while the limits are exceeded.
+     *
+     * @param keep key of a dataset that must not be dropped, null if any can be
+     * dropped.
+     */
+    private static void evict(String keep) {
+        Iterator<Map.Entry<String, RegisteredDataset>> it = DATASETS.entrySet().iterator();
+        while (it.hasNext() && (DATASETS.size() > maxDatasets || usedBytes > maxBytes)) {
+            Map.Entry<String, RegisteredDataset> eldest = it.next();
+            if (!eldest.getKey().equals(keep)) {
+                usedBytes -= eldest.getValue().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Dataset kept by the registry with the data needed for its management.
+     */
+    private static class RegisteredDataset {
+
+        private final Dataset dataset;
+        private final long lastModified;
+        private long bytes;
+
+        private RegisteredDataset(Dataset dataset, long lastModified) {
+            this.dataset = dataset;
+            this.lastModified = lastModified;
+            this.bytes = dataset.getHeapBytes();
+        }
+    }
+}
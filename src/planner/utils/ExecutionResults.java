@@ -1,9 +1,18 @@
 package planner.utils;
 
-import java.util.ArrayList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 
 public class ExecutionResults {
 
+    /**
+     * Characters buffered by writeCSV before writing them.
+     */
+    private static final int CSV_CHUNK = 8192;
+
     private final String EXECUTION_ID;
     private String algorithm;
     private String stoppingCriterion;
@@ -17,26 +26,55 @@ public class ExecutionResults {
     private String dataset;
     private int D;
     private int CV;
-    private final ArrayList<double[]> NPValues;
-    private final ArrayList<double[]> FValues;
-    private final ArrayList<double[]> CRValues;
-    private final ArrayList<double[]> fitnessValues;
+    private final Trace NPValues;
+    private final Trace FValues;
+    private final Trace CRValues;
+    private final Trace fitnessValues;
+    private TracePolicy NPPolicy;
+    private TracePolicy FPolicy;
+    private TracePolicy CRPolicy;
+    private TracePolicy fitnessPolicy;
+    private Telemetry telemetry;
     private int numGenerations;
     private int numFEs;
+    private double bestFitness;
+    private int lastImprovementFE;
+    private double fitnessSpread;
+    private long cacheHits;
+    private long cacheMisses;
+    private long surrogateRejections;
+    private long surrogateChecks;
+    private long surrogateWrongRejections;
     private double time;
+    private double CPUTime;
+    private long allocatedBytes;
+    private long GCCount;
+    private double GCTime;
+    private double[] phaseTimes;
+    private PhaseTimer phaseTimer;
+    private ResourceUsage resourceUsage;
     private double[] solution;
     private double solutionFitness;
     private boolean successful;
 
     public ExecutionResults(String EXECUTION_ID) {
         this.EXECUTION_ID = EXECUTION_ID;
-        NPValues = new ArrayList<>();
-        FValues = new ArrayList<>();
-        CRValues = new ArrayList<>();
-        fitnessValues = new ArrayList<>();
+        NPValues = new Trace();
+        FValues = new Trace();
+        CRValues = new Trace();
+        fitnessValues = new Trace();
+        NPPolicy = TracePolicy.parse(TracePolicy.DEFAULT);
+        FPolicy = TracePolicy.parse(TracePolicy.DEFAULT);
+        CRPolicy = TracePolicy.parse(TracePolicy.DEFAULT);
+        fitnessPolicy = TracePolicy.parse(TracePolicy.DEFAULT);
         numGenerations = 0;
         numFEs = 0;
+        bestFitness = Double.MAX_VALUE;
+        lastImprovementFE = 0;
+        fitnessSpread = Double.MAX_VALUE;
         time = 0;
+        CPUTime = -1;
+        allocatedBytes = -1;
         successful = true;
     }
 
@@ -104,31 +142,179 @@ public class ExecutionResults {
         this.numFEs += numFEs;
     }
 
-    public void addNP(int NP) {
-        if (NPValues.isEmpty() || NPValues.get(NPValues.size() - 1)[0] != NP) {
-            double[] obs = new double[]{NP, System.currentTimeMillis(), numGenerations, numFEs};
-            NPValues.add(obs);
+    /**
+     * Updates the best fitness found with the fitness of a new evaluation,
+     * storing the number of FEs of the last improvement.
+     *
+     * @param fitness fitness of the last evaluation.
+     */
+    public void updateBestFitness(double fitness) {
+        if (fitness < bestFitness) {
+            bestFitness = fitness;
+            lastImprovementFE = numFEs;
         }
     }
 
-    public void addF(double F) {
-        if (FValues.isEmpty() || FValues.get(FValues.size() - 1)[0] != F) {
-            double[] obs = new double[]{F, System.currentTimeMillis(), numGenerations, numFEs};
-            FValues.add(obs);
+    /**
+     * Forgets the best fitness found, when the fitness of later evaluations is
+     * no longer comparable, for example when a mini-batch grows. The fitness
+     * trace is not monotonic across that point.
+     */
+    public void resetBestFitness() {
+        bestFitness = Double.MAX_VALUE;
+        lastImprovementFE = numFEs;
+    }
+
+    public void setFitnessSpread(double fitnessSpread) {
+        this.fitnessSpread = fitnessSpread;
+    }
+
+    public void incrCacheHits() {
+        this.cacheHits++;
+    }
+
+    public void incrCacheMisses() {
+        this.cacheMisses++;
+    }
+
+    public void incrSurrogateRejections() {
+        this.surrogateRejections++;
+    }
+
+    /**
+     * Counts a rejection of the surrogate checked by evaluating the trial
+     * individual.
+     *
+     * @param wrong TRUE if the trial individual would have been selected,
+     * FALSE otherwise.
+     */
+    public void incrSurrogateChecks(boolean wrong) {
+        this.surrogateChecks++;
+        if (wrong) {
+            this.surrogateWrongRejections++;
         }
     }
 
-    public void addCR(double CR) {
-        if (CRValues.isEmpty() || CRValues.get(CRValues.size() - 1)[0] != CR) {
-            double[] obs = new double[]{CR, System.currentTimeMillis(), numGenerations, numFEs};
-            CRValues.add(obs);
+    /**
+     * Sets the policies deciding which observations are stored in each
+     * convergence trace.
+     *
+     * @param NPPolicy policy of the NP trace.
+     * @param FPolicy policy of the F trace.
+     * @param CRPolicy policy of the CR trace.
+     * @param fitnessPolicy policy of the fitness trace.
+     */
+    public void setTracePolicies(TracePolicy NPPolicy, TracePolicy FPolicy,
+            TracePolicy CRPolicy, TracePolicy fitnessPolicy) {
+        this.NPPolicy = NPPolicy;
+        this.FPolicy = FPolicy;
+        this.CRPolicy = CRPolicy;
+        this.fitnessPolicy = fitnessPolicy;
+    }
+
+    /**
+     * Starts sending the observations of the traces to the consumer of
+     * Telemetry instead of storing them in the calling thread. Until
+     * stopTelemetry, only the thread which started it may add observations,
+     * and the traces must be flushed before reading them.
+     */
+    public void startTelemetry() {
+        if (telemetry == null) {
+            telemetry = new Telemetry(this);
+        }
+    }
+
+    /**
+     * Waits until every observation sent to the consumer of Telemetry is
+     * stored in the traces.
+     */
+    public void flushTelemetry() {
+        if (telemetry != null) {
+            telemetry.flush();
+        }
+    }
+
+    /**
+     * Stores the observations sent to the consumer of Telemetry and stores the
+     * next ones in the calling thread again.
+     */
+    public void stopTelemetry() {
+        if (telemetry != null) {
+            telemetry.close();
+            telemetry = null;
+        }
+    }
+
+    /**
+     * Starts adding the times of the phases measured by the timer to the
+     * results, until stopPhaseTiming. Nothing is added if the timer is
+     * disabled.
+     *
+     * @param timer timer of the phases of the execution.
+     */
+    public void startPhaseTiming(PhaseTimer timer) {
+        if (timer.isEnabled()) {
+            phaseTimer = timer;
+            if (phaseTimes == null) {
+                phaseTimes = new double[PhaseTimer.PHASES.length];
+            }
         }
     }
 
+    /**
+     * Adds the times measured by the timer started with startPhaseTiming.
+     */
+    public void stopPhaseTiming() {
+        phaseTimes = getPhaseTimes();
+        phaseTimer = null;
+    }
+
+    public void addNP(int NP) {
+        observe(Telemetry.NP, NP);
+    }
+
+    public void addF(double F) {
+        observe(Telemetry.F, F);
+    }
+
+    public void addCR(double CR) {
+        observe(Telemetry.CR, CR);
+    }
+
     public void addFitness(double fitness) {
-        if (fitnessValues.isEmpty() || fitnessValues.get(fitnessValues.size() - 1)[0] != fitness) {
-            double[] obs = new double[]{fitness, System.currentTimeMillis(), numGenerations, numFEs};
-            fitnessValues.add(obs);
+        observe(Telemetry.FITNESS, fitness);
+    }
+
+    private void observe(int kind, double value) {
+        if (telemetry != null) {
+            telemetry.publish(kind, value, numGenerations, numFEs);
+        } else {
+            observe(kind, value, numGenerations, numFEs);
+        }
+    }
+
+    /**
+     * Observes a value of a trace, storing it if its policy selects it.
+     *
+     * @param kind kind of event of the trace, see Telemetry.
+     * @param value observed value.
+     * @param generation generation of the observation.
+     * @param FE FE of the observation.
+     */
+    void observe(int kind, double value, int generation, int FE) {
+        switch (kind) {
+            case Telemetry.NP:
+                NPPolicy.observe(NPValues, value, generation, FE);
+                break;
+            case Telemetry.F:
+                FPolicy.observe(FValues, value, generation, FE);
+                break;
+            case Telemetry.CR:
+                CRPolicy.observe(CRValues, value, generation, FE);
+                break;
+            default:
+                fitnessPolicy.observe(fitnessValues, value, generation, FE);
+                break;
         }
     }
 
@@ -136,6 +322,27 @@ public class ExecutionResults {
         this.time = time;
     }
 
+    /**
+     * Starts measuring the resources used by the calling thread, which are
+     * added to the ones of the results, restored from a snapshot if the
+     * execution is resumed, until stopResourceUsage.
+     */
+    public void startResourceUsage() {
+        resourceUsage = ResourceUsage.start();
+    }
+
+    /**
+     * Adds the resources measured since startResourceUsage to the results.
+     */
+    public void stopResourceUsage() {
+        resourceUsage.stop();
+        CPUTime = getCPUTime();
+        allocatedBytes = getAllocatedBytes();
+        GCCount = getGCCount();
+        GCTime = getGCTime();
+        resourceUsage = null;
+    }
+
     public void setSolution(double[] solution) {
         this.solution = solution;
     }
@@ -204,19 +411,28 @@ public class ExecutionResults {
         return CV;
     }
 
-    public ArrayList<double[]> getNPValues() {
+    public Trace getNPValues() {
         return NPValues;
     }
 
-    public ArrayList<double[]> getFValues() {
+    public Trace getFValues() {
         return FValues;
     }
 
-    public ArrayList<double[]> getCRValues() {
+    public Trace getCRValues() {
         return CRValues;
     }
 
-    public ArrayList<double[]> getFitnessValues() {
+    /**
+     * Gets the NP, F, CR and fitness traces.
+     *
+     * @return the traces, in that order.
+     */
+    public Trace[] getTraces() {
+        return new Trace[]{NPValues, FValues, CRValues, fitnessValues};
+    }
+
+    public Trace getFitnessValues() {
         return fitnessValues;
     }
 
@@ -228,10 +444,123 @@ public class ExecutionResults {
         return numFEs;
     }
 
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    public int getLastImprovementFE() {
+        return lastImprovementFE;
+    }
+
+    /**
+     * Gets the difference between the worst and the best fitness of the last
+     * population.
+     *
+     * @return the spread of the fitness, Double.MAX_VALUE before the first
+     * generation.
+     */
+    public double getFitnessSpread() {
+        return fitnessSpread;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Gets the fraction of candidate solutions found in the fitness cache.
+     *
+     * @return hit rate of the cache, 0 if no cache was used.
+     */
+    public double getCacheHitRate() {
+        long lookups = cacheHits + cacheMisses;
+        return lookups == 0 ? 0.0 : (double) cacheHits / lookups;
+    }
+
+    public long getSurrogateRejections() {
+        return surrogateRejections;
+    }
+
+    public long getSurrogateChecks() {
+        return surrogateChecks;
+    }
+
+    public long getSurrogateWrongRejections() {
+        return surrogateWrongRejections;
+    }
+
     public double getTime() {
         return time;
     }
 
+    /**
+     * Gets the CPU time of the thread running the execution.
+     *
+     * @return CPU time in milliseconds, -1 if not measured.
+     */
+    public double getCPUTime() {
+        if (resourceUsage == null) {
+            return CPUTime;
+        }
+        double used = resourceUsage.getCPUTime();
+        return used < 0 ? -1 : Math.max(0, CPUTime) + used;
+    }
+
+    /**
+     * Gets the bytes allocated by the thread running the execution.
+     *
+     * @return bytes allocated, -1 if not measured.
+     */
+    public long getAllocatedBytes() {
+        if (resourceUsage == null) {
+            return allocatedBytes;
+        }
+        long used = resourceUsage.getAllocatedBytes();
+        return used < 0 ? -1 : Math.max(0, allocatedBytes) + used;
+    }
+
+    /**
+     * Gets the number of garbage collections happened during the execution.
+     *
+     * @return number of collections.
+     */
+    public long getGCCount() {
+        return resourceUsage == null ? GCCount : GCCount + resourceUsage.getGCCount();
+    }
+
+    /**
+     * Gets the share of the time of the garbage collections attributed to the
+     * execution, see ResourceUsage.
+     *
+     * @return time in milliseconds.
+     */
+    public double getGCTime() {
+        return resourceUsage == null ? GCTime : GCTime + resourceUsage.getGCTime();
+    }
+
+    /**
+     * Gets the estimated time of each phase of the loop of the algorithm, see
+     * PhaseTimer, including the times measured before the execution was
+     * resumed from a snapshot.
+     *
+     * @return time in milliseconds by phase, null if the phases were not
+     * timed.
+     */
+    public double[] getPhaseTimes() {
+        if (phaseTimes == null || phaseTimer == null) {
+            return phaseTimes;
+        }
+        double[] times = phaseTimer.getTimes();
+        for (int i = 0; i < times.length; i++) {
+            times[i] += phaseTimes[i];
+        }
+        return times;
+    }
+
     public double[] getSolution() {
         return solution;
     }
@@ -240,44 +569,336 @@ public class ExecutionResults {
         return solutionFitness;
     }
 
+    /**
+     * Writes the results in binary format, see read.
+     *
+     * @param out destination of the results.
+     * @throws IOException if the results cannot be written.
+     */
+    public void write(DataOutput out) throws IOException {
+        writeFields(out, false);
+    }
+
+    /**
+     * Writes the results in binary format with the convergence traces
+     * compressed, see BinaryTraceFormat and readCompact.
+     *
+     * @param out destination of the results.
+     * @throws IOException if the results cannot be written.
+     */
+    public void writeCompact(DataOutput out) throws IOException {
+        writeFields(out, true);
+    }
+
+    private void writeFields(DataOutput out, boolean compact) throws IOException {
+        out.writeUTF(EXECUTION_ID);
+        writeHeader(out);
+        for (Trace values : getTraces()) {
+            if (compact) {
+                BinaryTraceFormat.writeTrace(values, out);
+                continue;
+            }
+            out.writeInt(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                out.writeInt(4);
+                out.writeDouble(values.getValue(i));
+                out.writeDouble(values.getTime(i));
+                out.writeDouble(values.getGeneration(i));
+                out.writeDouble(values.getFE(i));
+            }
+        }
+        writeCounters(out);
+    }
+
+    /**
+     * Writes the results except the identifier and the traces, see readState.
+     * Its cost does not depend on the length of the execution, so the traces
+     * of a snapshot are written apart.
+     *
+     * @param out destination of the results.
+     * @throws IOException if the results cannot be written.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        writeHeader(out);
+        writeCounters(out);
+    }
+
+    private void writeHeader(DataOutput out) throws IOException {
+        for (String str : new String[]{algorithm, stoppingCriterion, initializer,
+            mutator, crossover, selector, evaluator, objFunction, dataset}) {
+            out.writeBoolean(str != null);
+            if (str != null) {
+                out.writeUTF(str);
+            }
+        }
+        out.writeInt(maxStop);
+        out.writeInt(D);
+        out.writeInt(CV);
+    }
+
+    private void writeCounters(DataOutput out) throws IOException {
+        out.writeInt(numGenerations);
+        out.writeInt(numFEs);
+        out.writeDouble(bestFitness);
+        out.writeInt(lastImprovementFE);
+        out.writeDouble(fitnessSpread);
+        out.writeLong(cacheHits);
+        out.writeLong(cacheMisses);
+        out.writeLong(surrogateRejections);
+        out.writeLong(surrogateChecks);
+        out.writeLong(surrogateWrongRejections);
+        out.writeDouble(time);
+        out.writeDouble(getCPUTime());
+        out.writeLong(getAllocatedBytes());
+        out.writeLong(getGCCount());
+        out.writeDouble(getGCTime());
+        double[] phases = getPhaseTimes();
+        out.writeInt(phases == null ? -1 : phases.length);
+        if (phases != null) {
+            for (double v : phases) {
+                out.writeDouble(v);
+            }
+        }
+        out.writeInt(solution == null ? -1 : solution.length);
+        if (solution != null) {
+            for (double v : solution) {
+                out.writeDouble(v);
+            }
+        }
+        out.writeDouble(solutionFitness);
+        out.writeBoolean(successful);
+    }
+
+    /**
+     * Reads results written by write.
+     *
+     * @param in source of the results.
+     * @return the results.
+     * @throws IOException if the results cannot be read.
+     */
+    public static ExecutionResults read(DataInput in) throws IOException {
+        ExecutionResults results = new ExecutionResults(in.readUTF());
+        results.readFields(in, false);
+        return results;
+    }
+
+    /**
+     * Reads results written by writeCompact.
+     *
+     * @param in source of the results.
+     * @return the results.
+     * @throws IOException if the results cannot be read.
+     */
+    public static ExecutionResults readCompact(DataInput in) throws IOException {
+        ExecutionResults results = new ExecutionResults(in.readUTF());
+        results.readFields(in, true);
+        return results;
+    }
+
+    /**
+     * Replaces these results, except the identifier and the traces, with
+     * results written by writeState.
+     *
+     * @param in source of the results.
+     * @throws IOException if the results cannot be read.
+     */
+    public void readState(DataInput in) throws IOException {
+        readHeader(in);
+        readCounters(in);
+    }
+
+    private void readFields(DataInput in, boolean compact) throws IOException {
+        readHeader(in);
+        for (Trace values : getTraces()) {
+            if (compact) {
+                BinaryTraceFormat.readTrace(in, values);
+                continue;
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                double[] obs = new double[in.readInt()];
+                for (int j = 0; j < obs.length; j++) {
+                    obs[j] = in.readDouble();
+                }
+                values.add(obs[0], (long) obs[1], (int) obs[2], (int) obs[3]);
+            }
+        }
+        readCounters(in);
+    }
+
+    private void readHeader(DataInput in) throws IOException {
+        String[] str = new String[9];
+        for (int i = 0; i < str.length; i++) {
+            str[i] = in.readBoolean() ? in.readUTF() : null;
+        }
+        algorithm = str[0];
+        stoppingCriterion = str[1];
+        initializer = str[2];
+        mutator = str[3];
+        crossover = str[4];
+        selector = str[5];
+        evaluator = str[6];
+        objFunction = str[7];
+        dataset = str[8];
+        maxStop = in.readInt();
+        D = in.readInt();
+        CV = in.readInt();
+    }
+
+    private void readCounters(DataInput in) throws IOException {
+        numGenerations = in.readInt();
+        numFEs = in.readInt();
+        bestFitness = in.readDouble();
+        lastImprovementFE = in.readInt();
+        fitnessSpread = in.readDouble();
+        cacheHits = in.readLong();
+        cacheMisses = in.readLong();
+        surrogateRejections = in.readLong();
+        surrogateChecks = in.readLong();
+        surrogateWrongRejections = in.readLong();
+        time = in.readDouble();
+        CPUTime = in.readDouble();
+        allocatedBytes = in.readLong();
+        GCCount = in.readLong();
+        GCTime = in.readDouble();
+        int phases = in.readInt();
+        phaseTimes = null;
+        if (phases >= 0) {
+            phaseTimes = new double[phases];
+            for (int i = 0; i < phases; i++) {
+                phaseTimes[i] = in.readDouble();
+            }
+        }
+        int length = in.readInt();
+        if (length >= 0) {
+            solution = new double[length];
+            for (int i = 0; i < length; i++) {
+                solution[i] = in.readDouble();
+            }
+        }
+        solutionFitness = in.readDouble();
+        successful = in.readBoolean();
+    }
+
+    /**
+     * Writes the results as semicolon separated text. The text is built in
+     * chunks of a reused buffer, so the values are formatted into the buffer
+     * without creating a String for each one and the trace is never held in
+     * memory as text.
+     *
+     * @param out destination of the text.
+     * @throws IOException if the text cannot be written.
+     */
+    public void writeCSV(java.io.Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(CSV_CHUNK + 256);
+        char[] chars = new char[sb.capacity()];
+        sb.append("\n\n\n\nEXECUTION_ID;ALGORITHM;D;STOPCRITERON;STOP;INITIALIZER;MUTATOR;CROSSOVER;SELECTOR;EVALUATOR;OBJFUNCTION;DATASET;CV");
+        sb.append('\n').append(EXECUTION_ID).append(';')
+                .append(algorithm).append(';')
+                .append(D).append(';')
+                .append(stoppingCriterion).append(';')
+                .append(maxStop).append(';')
+                .append(initializer).append(';')
+                .append(mutator).append(';')
+                .append(crossover).append(';')
+                .append(selector).append(';')
+                .append(evaluator).append(';')
+                .append(objFunction).append(';')
+                .append(dataset).append(';')
+                .append(CV);
+        sb.append("\n\nFITNESS;SOLUTION;NUM_FES;NUM_GENERATIONS;TIME(ms);CPU_TIME(ms);ALLOCATED_BYTES;GC_COUNT;GC_TIME(ms)");
+        sb.append('\n').append(solutionFitness).append(';');
+        if (solution == null) {
+            sb.append("null");
+        } else {
+            sb.append('[');
+            for (int i = 0; i < solution.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(solution[i]);
+                flushCSV(sb, chars, out, CSV_CHUNK);
+            }
+            sb.append(']');
+        }
+        sb.append(';').append(numFEs).append(';').append(numGenerations).append(';').append(time);
+        sb.append(';').append(CPUTime).append(';').append(allocatedBytes).append(';').append(GCCount).append(';').append(GCTime);
+        sb.append('\n');
+        if (cacheHits + cacheMisses > 0) {
+            sb.append("\nCACHE_HITS;CACHE_MISSES;CACHE_HIT_RATE");
+            sb.append('\n').append(cacheHits).append(';').append(cacheMisses).append(';').append(getCacheHitRate());
+            sb.append('\n');
+        }
+        double[] phases = getPhaseTimes();
+        if (phases != null) {
+            sb.append('\n');
+            for (int i = 0; i < phases.length; i++) {
+                sb.append(i == 0 ? "" : ";").append("PHASE_").append(PhaseTimer.PHASES[i]).append("(ms)");
+            }
+            sb.append('\n');
+            for (int i = 0; i < phases.length; i++) {
+                sb.append(i == 0 ? "" : ";").append(phases[i]);
+            }
+            sb.append('\n');
+        }
+        if (surrogateRejections + surrogateChecks > 0) {
+            sb.append("\nSURROGATE_REJECTIONS;SURROGATE_CHECKS;SURROGATE_WRONG_REJECTIONS");
+            sb.append('\n').append(surrogateRejections).append(';').append(surrogateChecks)
+                    .append(';').append(surrogateWrongRejections);
+            sb.append('\n');
+        }
+        writeTrace(sb, chars, out, "NP", NPValues, true);
+        writeTrace(sb, chars, out, "F", FValues, false);
+        writeTrace(sb, chars, out, "CR", CRValues, false);
+        writeTrace(sb, chars, out, "FITNESS", fitnessValues, false);
+        flushCSV(sb, chars, out, 0);
+    }
+
+    /**
+     * Writes the observations of a trace, each one with the value, the time,
+     * the generation and the FE when it was observed.
+     */
+    private static void writeTrace(StringBuilder sb, char[] chars, java.io.Writer out,
+            String name, Trace values, boolean integer) throws IOException {
+        sb.append('\n').append(name).append(";AT_TIME(ms);AT_GENERATION;AT_FE");
+        for (int i = 0; i < values.size(); i++) {
+            sb.append('\n');
+            if (integer) {
+                sb.append((int) values.getValue(i));
+            } else {
+                sb.append(values.getValue(i));
+            }
+            sb.append(';').append((double) values.getTime(i)).append(';')
+                    .append(values.getGeneration(i)).append(';').append(values.getFE(i));
+            flushCSV(sb, chars, out, CSV_CHUNK);
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * Writes the text of the buffer once it reaches a size, emptying it.
+     */
+    private static void flushCSV(StringBuilder sb, char[] chars, java.io.Writer out,
+            int size) throws IOException {
+        if (sb.length() >= size) {
+            for (int from = 0; from < sb.length(); from += chars.length) {
+                int n = Math.min(chars.length, sb.length() - from);
+                sb.getChars(from, from + n, chars, 0);
+                out.write(chars, 0, n);
+            }
+            sb.setLength(0);
+        }
+    }
+
     @Override
     public String toString() {
-        String data = "EXECUTION_ID;ALGORITHM;D;STOPCRITERON;STOP;INITIALIZER;MUTATOR;CROSSOVER;SELECTOR;EVALUATOR;OBJFUNCTION;DATASET;CV";
-        data += "\n" + getEXECUTION_ID() + ";"
-                + getAlgorithm() + ";"
-                + getD() + ";"
-                + getStoppingCriterion() + ";"
-                + getMaxStop() + ";"
-                + getInitializer() + ";"
-                + getMutator() + ";"
-                + getCrossover() + ";"
-                + getSelector() + ";"
-                + getEvaluator() + ";"
-                + getObjFunction() + ";"
-                + getDataset() + ";"
-                + getCV();
-        data += "\n";
-        data += "\n" + "FITNESS;SOLUTION;NUM_FES;NUM_GENERATIONS;TIME(ms)";
-        data += "\n" + getSolutionFitness() + ";"
-                + PrintingTools.toString(getSolution()) + ";"
-                + getNumFEs() + ";"
-                + getNumGenerations() + ";"
-                + getTime();
-        data += "\n";
-        data += "\n" + "NP;AT_TIME(ms);AT_GENERATION;AT_FE";
-
-        data = "\n" + getNPValues().stream().map(np -> "\n" + (int) np[0] + ";" + np[1] + ";" + (int) np[2] + ";" + (int) np[3]).reduce(data, String::concat);
-        data += "\n";
-        data += "\n" + "F;AT_TIME(ms);AT_GENERATION;AT_FE";
-        data = "\n" + getFValues().stream().map(f -> "\n" + f[0] + ";" + f[1] + ";" + (int) f[2] + ";" + (int) f[3]).reduce(data, String::concat);
-        data += "\n";
-        data += "\n" + "CR;AT_TIME(ms);AT_GENERATION;AT_FE";
-        data = "\n" + getCRValues().stream().map(cr -> "\n" + cr[0] + ";" + cr[1] + ";" + (int) cr[2] + ";" + (int) cr[3]).reduce(data, String::concat);
-        data += "\n";
-        data += "\n" + "FITNESS;AT_TIME(ms);AT_GENERATION;AT_FE";
-        data = "\n" + getFitnessValues().stream().map(fitness -> "\n" + fitness[0] + ";" + fitness[1] + ";" + (int) fitness[2] + ";" + (int) fitness[3]).reduce(data, String::concat);
-        data += "\n";
-        return data;
+        StringWriter str = new StringWriter();
+        try {
+            writeCSV(str);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return str.toString();
     }
 
 }
@@ -0,0 +1,189 @@
+package planner.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * ExperimentJournal is an append-only file with the results of the executions
+ * of an Experiment already finished, so an interrupted Experiment can be
+ * resumed without running them again. Each record is stored as its length,
+ * the CRC32 of its content and its content, and the file is synchronized with
+ * the storage after each record. Records are identified by the identifier of
+ * the execution and a hash of its configuration, so executions whose
+ * configuration changed are run again. An incomplete or corrupted record at
+ * the end of the file, left by a crash while writing it, is discarded, and
+ * records written with an older layout are ignored, so their executions are
+ * run again. Only the position of each record is kept in memory, and a record
+ * is read from the file when it is looked up.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class ExperimentJournal implements Closeable {
+
+    /**
+     * Bytes of the header of a record: length and CRC32 of its content.
+     */
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final FileChannel channel;
+
+    /**
+     * Positions in the file of the records not looked up yet, by identifier
+     * and hash.
+     */
+    private final HashMap<String, Long> records;
+
+    /**
+     * Opens a journal, creating it if it does not exist, and indexes its
+     * valid records.
+     *
+     * @param path path of the file of the journal.
+     * @throws IOException if the file cannot be opened.
+     */
+    public ExperimentJournal(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        records = new HashMap<>();
+
+        long position = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int length = header.getInt();
+            long checksum = header.getInt() & 0xFFFFFFFFL;
+            if (length < 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER_BYTES);
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            if (crc.getValue() != checksum) {
+                break;
+            }
+            JournalRecord record = JournalRecord.readKey(new DataInputStream(new ByteArrayInputStream(payload.array())));
+            if (record != null) {
+                records.put(key(record.getId(), record.getHash()), position);
+            }
+            position += HEADER_BYTES + length;
+        }
+        channel.truncate(position);
+        channel.position(position);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("ExperimentJournal[Unexpected end of file.]");
+            }
+        }
+    }
+
+    private static String key(String id, long hash) {
+        return id + "#" + Long.toHexString(hash);
+    }
+
+    /**
+     * Gets the record of a finished execution, read from the file. Each record
+     * is got once, so it is not indexed after that.
+     *
+     * @param id identifier of the execution.
+     * @param hash hash of the configuration of the execution.
+     * @return the record, null if the execution has not been journaled or
+     * its record cannot be read.
+     */
+    public synchronized JournalRecord lookup(String id, long hash) {
+        Long position = records.remove(key(id, hash));
+        if (position == null) {
+            return null;
+        }
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(header, position);
+            header.flip();
+            ByteBuffer payload = ByteBuffer.allocate(header.getInt());
+            readFully(payload, position + HEADER_BYTES);
+            return JournalRecord.read(new DataInputStream(new ByteArrayInputStream(payload.array())));
+        } catch (IOException e) {
+            System.err.println("[ExperimentJournal::lookup]: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Appends the record of a finished execution, returning once it is stored.
+     *
+     * @param record the record.
+     * @throws IOException if the record cannot be written.
+     */
+    public synchronized void append(JournalRecord record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        record.write(new DataOutputStream(bytes));
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Gets the number of records of the file not looked up yet.
+     *
+     * @return number of records.
+     */
+    public synchronized int size() {
+        return records.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Computes the 64 bits FNV-1a hash of the description of a configuration.
+     *
+     * @param description description of the configuration.
+     * @return the hash.
+     */
+    public static long hash(String description) {
+        return hash(description.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes the 64 bits FNV-1a hash of a configuration in binary format.
+     *
+     * @param description configuration in binary format.
+     * @return the hash.
+     */
+    public static long hash(byte[] description) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : description) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,100 @@
+package planner.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * JournalRecord is an immutable class representing a finished execution
+ * stored in an ExperimentJournal.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class JournalRecord {
+
+    /**
+     * Layout of the records, written before each one. Records written by
+     * older versions start with the length of the identifier instead, so they
+     * are told apart and discarded.
+     */
+    private static final int LAYOUT = 0x4A520003;
+
+    private final String id;
+    private final long hash;
+    private final double score;
+    private final ExecutionResults results;
+
+    /**
+     * Constructor given the data of the execution.
+     *
+     * @param id identifier of the execution.
+     * @param hash hash of the configuration of the execution.
+     * @param score fitness of the solution used for comparing configurations.
+     * @param results results of the execution.
+     */
+    public JournalRecord(String id, long hash, double score, ExecutionResults results) {
+        this.id = id;
+        this.hash = hash;
+        this.score = score;
+        this.results = results;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public ExecutionResults getResults() {
+        return results;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(LAYOUT);
+        out.writeUTF(id);
+        out.writeLong(hash);
+        out.writeDouble(score);
+        results.write(out);
+    }
+
+    /**
+     * Reads the identifier and the hash of a record written by write, without
+     * decoding its results.
+     *
+     * @param in source of the record.
+     * @return the record without results, null if it was written with another
+     * layout.
+     * @throws IOException if the record cannot be read.
+     */
+    static JournalRecord readKey(DataInput in) throws IOException {
+        if (in.readInt() != LAYOUT) {
+            return null;
+        }
+        return new JournalRecord(in.readUTF(), in.readLong(), 0, null);
+    }
+
+    /**
+     * Reads a record written by write.
+     *
+     * @param in source of the record.
+     * @return the record, null if it was written with another layout.
+     * @throws IOException if the record cannot be read.
+     */
+    static JournalRecord read(DataInput in) throws IOException {
+        if (in.readInt() != LAYOUT) {
+            return null;
+        }
+        String id = in.readUTF();
+        long hash = in.readLong();
+        double score = in.readDouble();
+        return new JournalRecord(id, hash, score, ExecutionResults.read(in));
+    }
+}
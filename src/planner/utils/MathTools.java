@@ -14,12 +14,13 @@ import java.util.Random;
 public class MathTools {
 
     /**
-     * Random object of the DEFramework.
+     * Random object of the DEFramework. Each thread has its own sequence of
+     * numbers, see ThreadRandom.
      */
-    public static Random RND = new Random();
+    public static Random RND = new ThreadRandom();
 
     /**
-     * Updates random object seed.
+     * Updates random object seed for the calling thread.
      *
      * @param seed of the execution of the DEFramework.
      */
@@ -190,4 +191,157 @@ public class MathTools {
         double rnd = 1.0 / Math.PI * (scale / Math.pow(RND.nextDouble() - location, 2) + Math.pow(scale, 2));
         return rnd;
     }
+
+    /**
+     * Computes the natural logarithm of the Gamma function with the Lanczos
+     * approximation.
+     *
+     * @param x positive real value.
+     * @return ln(Gamma(x)).
+     */
+    public static double lnGamma(double x) {
+        double[] coef = {676.5203681218851, -1259.1392167224028, 771.32342877765313,
+            -176.61502916214059, 12.507343278686905, -0.13857109526572012,
+            9.9843695780195716e-6, 1.5056327351493116e-7};
+        if (x < 0.5) {
+            return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - lnGamma(1 - x);
+        }
+        x -= 1;
+        double a = 0.99999999999980993;
+        double t = x + 7.5;
+        for (int i = 0; i < coef.length; i++) {
+            a += coef[i] / (x + i + 1);
+        }
+        return 0.5 * Math.log(2 * Math.PI) + (x + 0.5) * Math.log(t) - t + Math.log(a);
+    }
+
+    /**
+     * Computes the probability of a Chi-square distribution being greater
+     * than a value, the p-value of a Chi-square test.
+     *
+     * @param x value of the statistic.
+     * @param df degrees of freedom.
+     * @return P(X > x).
+     */
+    public static double chiSquareSurvival(double x, double df) {
+        if (x <= 0) {
+            return 1.0;
+        }
+        double a = df / 2;
+        double z = x / 2;
+        double lnPrefix = a * Math.log(z) - z - lnGamma(a);
+        if (z < a + 1) {
+            // Series of the lower regularized Gamma function.
+            double term = 1.0 / a;
+            double sum = term;
+            for (int n = 1; n < 1000 && Math.abs(term) > Math.abs(sum) * 1e-15; n++) {
+                term *= z / (a + n);
+                sum += term;
+            }
+            return 1.0 - sum * Math.exp(lnPrefix);
+        }
+        // Continued fraction of the upper regularized Gamma function.
+        return Math.exp(lnPrefix) * continuedFraction(n -> n == 0 ? z + 1 - a : z + 2 * n + 1 - a,
+                n -> -n * (n - a));
+    }
+
+    /**
+     * Computes the cumulative distribution function of a Student's t
+     * distribution.
+     *
+     * @param t value of the statistic.
+     * @param df degrees of freedom.
+     * @return P(T <= t).
+     */
+    public static double studentTCDF(double t, double df) {
+        double x = df / (df + t * t);
+        double tail = 0.5 * regularizedBeta(x, df / 2, 0.5);
+        return t > 0 ? 1.0 - tail : tail;
+    }
+
+    /**
+     * Computes the quantile of a Student's t distribution by bisection.
+     *
+     * @param p probability, between 0 and 1.
+     * @param df degrees of freedom.
+     * @return t such that P(T <= t) = p.
+     */
+    public static double studentTQuantile(double p, double df) {
+        double lo = -1e3;
+        double hi = 1e3;
+        for (int i = 0; i < 200 && hi - lo > 1e-12; i++) {
+            double mid = 0.5 * (lo + hi);
+            if (studentTCDF(mid, df) < p) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return 0.5 * (lo + hi);
+    }
+
+    /**
+     * Computes the regularized incomplete Beta function.
+     *
+     * @param x value between 0 and 1.
+     * @param a first shape parameter.
+     * @param b second shape parameter.
+     * @return I_x(a, b).
+     */
+    public static double regularizedBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0.0;
+        }
+        if (x >= 1) {
+            return 1.0;
+        }
+        if (x > (a + 1) / (a + b + 2)) {
+            return 1.0 - regularizedBeta(1 - x, b, a);
+        }
+        double lnPrefix = a * Math.log(x) + b * Math.log(1 - x)
+                + lnGamma(a + b) - lnGamma(a) - lnGamma(b);
+        double cf = continuedFraction(n -> 1.0, n -> {
+            int m = n / 2;
+            if (n % 2 == 0) {
+                return m * (b - m) * x / ((a + 2 * m - 1) * (a + 2 * m));
+            }
+            return -(a + m) * (a + b + m) * x / ((a + 2 * m) * (a + 2 * m + 1));
+        });
+        return Math.exp(lnPrefix) / a * cf;
+    }
+
+    /**
+     * Evaluates the continued fraction 1 / (b0 + a1 / (b1 + a2 / (b2 + ...)))
+     * with the modified Lentz's method.
+     *
+     * @param b terms b_n, for n from 0.
+     * @param a terms a_n, for n from 1.
+     * @return value of the continued fraction.
+     */
+    private static double continuedFraction(java.util.function.IntToDoubleFunction b,
+            java.util.function.IntToDoubleFunction a) {
+        final double tiny = 1e-300;
+        double f = b.applyAsDouble(0);
+        if (f == 0) {
+            f = tiny;
+        }
+        double c = f;
+        double d = 0;
+        for (int n = 1; n < 1000; n++) {
+            double an = a.applyAsDouble(n);
+            double bn = b.applyAsDouble(n);
+            d = bn + an * d;
+            d = d == 0 ? tiny : 1.0 / d;
+            c = bn + an / c;
+            if (c == 0) {
+                c = tiny;
+            }
+            double delta = c * d;
+            f *= delta;
+            if (Math.abs(delta - 1) < 1e-15) {
+                break;
+            }
+        }
+        return 1.0 / f;
+    }
 }
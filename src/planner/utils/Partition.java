@@ -0,0 +1,189 @@
+package planner.utils;
+
+import java.nio.DoubleBuffer;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Partition is an immutable view over a subset of the instances of a Dataset,
+ * such as the training or the test partition of a cross validation. The
+ * instances are not copied: the partition keeps the indices of its instances
+ * as at most two ranges of an array of indices shared with other partitions.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class Partition {
+
+    private final Dataset dataset;
+    private final int[] order;
+    private final int firstFrom;
+    private final int firstTo;
+    private final int secondFrom;
+    private final int size;
+
+    /**
+     * Real prediction values of the instances, only built when requested.
+     */
+    private double[] realValues;
+
+    /**
+     * Constructor of a partition with every instance of a dataset in its
+     * original order.
+     *
+     * @param d dataset of the problem.
+     */
+    public Partition(Dataset d) {
+        this(d, identity(d.getNumInstances()), 0, d.getNumInstances());
+    }
+
+    /**
+     * Constructor of a partition made of one range of an array of indices.
+     *
+     * @param d dataset of the problem.
+     * @param order indices of instances of the dataset, it is not copied so it
+     * must not be modified later.
+     * @param from first position of the range, included.
+     * @param to last position of the range, excluded.
+     */
+    public Partition(Dataset d, int[] order, int from, int to) {
+        this(d, order, from, to, to, to);
+    }
+
+    /**
+     * Constructor of a partition made of two ranges of an array of indices.
+     *
+     * @param d dataset of the problem.
+     * @param order indices of instances of the dataset, it is not copied so it
+     * must not be modified later.
+     * @param firstFrom first position of the first range, included.
+     * @param firstTo last position of the first range, excluded.
+     * @param secondFrom first position of the second range, included.
+     * @param secondTo last position of the second range, excluded.
+     */
+    public Partition(Dataset d, int[] order, int firstFrom, int firstTo, int secondFrom, int secondTo) {
+        if (firstFrom < 0 || firstTo < firstFrom || firstTo > order.length
+                || secondFrom < 0 || secondTo < secondFrom || secondTo > order.length) {
+            throw new IndexOutOfBoundsException("Partition[Invalid range of indices.]");
+        }
+        this.dataset = d;
+        this.order = order;
+        this.firstFrom = firstFrom;
+        this.firstTo = firstTo;
+        this.secondFrom = secondFrom;
+        this.size = (firstTo - firstFrom) + (secondTo - secondFrom);
+    }
+
+    private static int[] identity(int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    public Dataset getDataset() {
+        return dataset;
+    }
+
+    /**
+     * Gets the number of instances of the partition.
+     *
+     * @return number of instances.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the index in the dataset of an instance of the partition.
+     *
+     * @param i position of the instance in the partition.
+     * @return index of the instance in the dataset.
+     */
+    public int getIndex(int i) {
+        int first = firstTo - firstFrom;
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Partition[" + i + " out of " + size + " instances.]");
+        }
+        return i < first ? order[firstFrom + i] : order[secondFrom + i - first];
+    }
+
+    /**
+     * Copies the values of all the attributes of an instance of the partition
+     * into a given array, so it can be reused between instances.
+     *
+     * @param i position of the instance in the partition.
+     * @param row array with a position by attribute where the values are
+     * copied.
+     * @return the given array.
+     */
+    public double[] getInstance(int i, double[] row) {
+        int index = getIndex(i);
+        for (int j = 0; j < row.length; j++) {
+            row[j] = dataset.getData(index, j);
+        }
+        return row;
+    }
+
+    /**
+     * Gets the real prediction values of the instances of the partition. They
+     * are computed the first time and shared by later calls, so the array
+     * returned must not be modified.
+     *
+     * @return an array of real prediction values.
+     */
+    public synchronized double[] getRealValues() {
+        if (realValues == null) {
+            int target = dataset.getNumAttributes() - 1;
+            double[] real = new double[size];
+            for (int i = 0; i < size; i++) {
+                real[i] = dataset.getData(getIndex(i), target);
+            }
+            realValues = real;
+        }
+        return realValues;
+    }
+
+    /**
+     * Gets the instances of the partition as a read-only list whose rows are
+     * built from the dataset each time they are accessed.
+     *
+     * @return list of instances.
+     */
+    public List<double[]> getInstances() {
+        return new AbstractList<double[]>() {
+            @Override
+            public double[] get(int i) {
+                return dataset.getInstance(getIndex(i));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Copies the instances of the partition into a new dataset with the
+     * instances stored in the order of the partition, so they can be scanned
+     * contiguously.
+     *
+     * @return a partition with every instance of the new dataset.
+     */
+    public Partition compact() {
+        DoubleBuffer[] columns = new DoubleBuffer[dataset.getNumAttributes()];
+        for (int j = 0; j < columns.length; j++) {
+            double[] column = new double[size];
+            for (int i = 0; i < size; i++) {
+                column[i] = dataset.getData(getIndex(i), j);
+            }
+            columns[j] = DoubleBuffer.wrap(column);
+        }
+        Dataset d = new Dataset(dataset.getPath(), dataset.getName(), dataset.getFormat(),
+                dataset.getDescription(), dataset.getAttributes(), columns, size);
+        return new Partition(d);
+    }
+}
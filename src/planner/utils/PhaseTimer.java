@@ -0,0 +1,127 @@
+package planner.utils;
+
+/**
+ * PhaseTimer accumulates the time spent by an algorithm in each phase of its
+ * loop: mutation, crossover, bounds checking, evaluation, selection and
+ * bookkeeping. An iteration of the loop calls start and then lap at the end
+ * of each phase, so each lap takes a single System.nanoTime. Only one of every
+ * period iterations is timed, the others get OFF from start and their laps
+ * return at once, and the time of each timed iteration is weighted by the
+ * period, estimating the total of every iteration. The work done once by
+ * generation is timed in every generation through startGeneration, since it
+ * is much less frequent. A PhaseTimer is used by a single execution.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class PhaseTimer {
+
+    public static final int MUTATION = 0;
+    public static final int CROSSOVER = 1;
+    public static final int BOUNDS = 2;
+    public static final int EVALUATION = 3;
+    public static final int SELECTION = 4;
+    public static final int BOOKKEEPING = 5;
+
+    /**
+     * Names of the phases, by phase.
+     */
+    public static final String[] PHASES = {"MUTATION", "CROSSOVER", "BOUNDS",
+        "EVALUATION", "SELECTION", "BOOKKEEPING"};
+
+    /**
+     * Timestamp of the iterations which are not timed.
+     */
+    public static final long OFF = -1;
+
+    /**
+     * Timer which never times, shared by the executions without timing since
+     * it has no state.
+     */
+    public static final PhaseTimer DISABLED = new PhaseTimer(0);
+
+    private final int period;
+    private final long[] nanos;
+    private int count;
+    private long weight;
+
+    /**
+     * Constructor given the sampling period.
+     *
+     * @param period one of every period iterations is timed, 0 for not timing.
+     */
+    public PhaseTimer(int period) {
+        this.period = Math.max(0, period);
+        nanos = new long[PHASES.length];
+        count = this.period - 1;
+    }
+
+    /**
+     * Checks if the timer times any iteration.
+     *
+     * @return TRUE if it times, FALSE otherwise.
+     */
+    public boolean isEnabled() {
+        return period > 0;
+    }
+
+    /**
+     * Starts an iteration of the loop of the algorithm.
+     *
+     * @return timestamp of the start, OFF if the iteration is not timed.
+     */
+    public long start() {
+        if (period == 0 || ++count < period) {
+            return OFF;
+        }
+        count = 0;
+        weight = period;
+        return System.nanoTime();
+    }
+
+    /**
+     * Starts the work done once by generation, which is always timed if the
+     * timer is enabled.
+     *
+     * @return timestamp of the start, OFF if the timer is disabled.
+     */
+    public long startGeneration() {
+        if (period == 0) {
+            return OFF;
+        }
+        weight = 1;
+        return System.nanoTime();
+    }
+
+    /**
+     * Ends a phase, adding the time since the previous timestamp.
+     *
+     * @param phase phase ended.
+     * @param t timestamp of the start of the phase, from start,
+     * startGeneration or the previous lap.
+     * @return timestamp of the start of the next phase, OFF if the iteration is
+     * not timed.
+     */
+    public long lap(int phase, long t) {
+        if (t == OFF) {
+            return OFF;
+        }
+        long now = System.nanoTime();
+        nanos[phase] += (now - t) * weight;
+        return now;
+    }
+
+    /**
+     * Gets the estimated time of each phase.
+     *
+     * @return time in milliseconds by phase.
+     */
+    public double[] getTimes() {
+        double[] times = new double[nanos.length];
+        for (int i = 0; i < nanos.length; i++) {
+            times[i] = nanos[i] / 1e6;
+        }
+        return times;
+    }
+}
@@ -5,8 +5,11 @@ import exceptions.IncompatibleConfigurationException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.stream.Stream;
 import planner.configuration.Experiment;
@@ -42,6 +45,31 @@ public class Reader {
     private static final String REGMETRIC_KEY = "RegressionMetric";
     private static final String OBJFUNC_KEY = "ObjectiveFunction";
     private static final String TSTFUNC_KEY = "TestFunction";
+    private static final String MINIBATCH_KEY = "MiniBatch";
+    private static final String MINIBATCH_GROWTH_KEY = "MiniBatchGrowth";
+    private static final String MINIBATCH_PERIOD_KEY = "MiniBatchPeriod";
+    private static final String FITNESS_CACHE_KEY = "FitnessCache";
+    private static final String FITNESS_CACHE_FES_KEY = "FitnessCacheCountsFEs";
+    private static final String SURROGATE_KEY = "Surrogate";
+    private static final String MAXTIME_KEY = "MaxTime";
+    private static final String TARGET_FITNESS_KEY = "TargetFitness";
+    private static final String TARGET_EPSILON_KEY = "TargetEpsilon";
+    private static final String STAGNATION_FES_KEY = "StagnationFEs";
+    private static final String STAGNATION_DELTA_KEY = "StagnationDelta";
+    private static final String RACING_KEY = "Racing";
+    private static final String RACING_ROUNDS_KEY = "RacingMinRounds";
+    private static final String RACING_ALPHA_KEY = "RacingAlpha";
+    private static final String TUNING_KEY = "Tuning";
+    private static final String TUNING_SAMPLES_KEY = "TuningSamples";
+    private static final String TUNING_ETA_KEY = "TuningEta";
+    private static final String JOURNAL_KEY = "Journal";
+    private static final String SNAPSHOT_PERIOD_KEY = "SnapshotPeriod";
+    private static final String BINARY_RESULTS_KEY = "BinaryResults";
+    private static final String TRACE_NP_KEY = "TraceNP";
+    private static final String TRACE_F_KEY = "TraceF";
+    private static final String TRACE_CR_KEY = "TraceCR";
+    private static final String TRACE_FITNESS_KEY = "TraceFitness";
+    private static final String PHASE_TIMING_KEY = "PhaseTiming";
 
     /**
      * Path of the file with core data about the framework configuration.
@@ -122,6 +150,17 @@ public class Reader {
             // Aliases of default components.
             defaultProperties = new Properties();
             defaultProperties.load(new FileInputStream(new File(defaultComponentsPath)));
+
+            // Limits of the datasets shared among executions.
+            DatasetRegistry.configure(
+                    Integer.parseInt(configDataProperties.getProperty("DATASET_CACHE_MAX_ENTRIES",
+                            Integer.toString(Integer.MAX_VALUE)).trim()),
+                    Long.parseLong(configDataProperties.getProperty("DATASET_CACHE_MAX_MB",
+                            Long.toString(Long.MAX_VALUE >> 20)).trim()) << 20);
+
+            // Executions run at the same time, 0 for using every available
+            // processor.
+            Experiment.setParallelism(Integer.parseInt(configDataProperties.getProperty("PARALLELISM", "0").trim()));
         } catch (IOException e) {
             System.err.println("[Reader::loadConfigurationData]:" + e.getMessage());
         }
@@ -363,6 +402,59 @@ public class Reader {
         return elements;
     }
 
+    /**
+     * Reads an optional setting of an experiment: if it is not defined, the
+     * value registered in the default components properties is used and, if
+     * there is none, the given default value.
+     *
+     * @param properties properties of the experiment.
+     * @param key name of the setting.
+     * @param defaultValue value used when the setting is not defined anywhere.
+     * @return the trimmed value of the setting.
+     */
+    private static String optionalSetting(Properties properties, String key, String defaultValue) {
+        String input = properties.getProperty(key, "").trim();
+        if (input.isEmpty()) {
+            input = defaultProperties.getProperty(key, defaultValue).trim();
+        }
+        return input;
+    }
+
+    private static int optionalInteger(Properties properties, String key, int defaultValue) throws ExperimentFormatException {
+        String input = optionalSetting(properties, key, Integer.toString(defaultValue));
+        try {
+            return Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            throw new ExperimentFormatException(key + " must be an integer.");
+        }
+    }
+
+    private static double optionalReal(Properties properties, String key, double defaultValue) throws ExperimentFormatException {
+        String input = optionalSetting(properties, key, Double.toString(defaultValue));
+        try {
+            return Double.parseDouble(input);
+        } catch (NumberFormatException e) {
+            throw new ExperimentFormatException(key + " must be a real number.");
+        }
+    }
+
+    private static String optionalTracePolicy(Properties properties, String key) throws ExperimentFormatException {
+        String input = optionalSetting(properties, key, TracePolicy.DEFAULT);
+        try {
+            return TracePolicy.parse(input).toString();
+        } catch (IllegalArgumentException e) {
+            throw new ExperimentFormatException(key + " " + input + " not valid.");
+        }
+    }
+
+    private static boolean optionalBoolean(Properties properties, String key, boolean defaultValue) throws ExperimentFormatException {
+        String input = optionalSetting(properties, key, Boolean.toString(defaultValue));
+        if (!input.equalsIgnoreCase("true") && !input.equalsIgnoreCase("false")) {
+            throw new ExperimentFormatException(key + " must be true or false.");
+        }
+        return Boolean.parseBoolean(input);
+    }
+
     private static ArrayList<String> stringElementsCreator(Properties properties, String key, String prefix) throws ExperimentFormatException {
         strComp = componentsProperties.stringPropertyNames().stream();
         ArrayList<String> elements = new ArrayList<>();
@@ -459,6 +551,12 @@ public class Reader {
             ArrayList<String> objfunctions = stringElementsCreator(properties, OBJFUNC_KEY, "of-");
             experiment.setParamObjFunctionValues(objfunctions);
 
+            // Mini-batches are optional, if not defined every evaluation uses
+            // all the training instances.
+            experiment.setMiniBatch(optionalInteger(properties, MINIBATCH_KEY, 0),
+                    optionalReal(properties, MINIBATCH_GROWTH_KEY, 2.0),
+                    optionalInteger(properties, MINIBATCH_PERIOD_KEY, 50));
+
         } else if (properties.contains(REGMETRIC_KEY) || properties.contains(OBJFUNC_KEY)) {
             throw new IncompatibleConfigurationException(DATASET_KEY + " "
                     + "parameter not defined.");
@@ -470,6 +568,68 @@ public class Reader {
             experiment.setParamTestFunctionValues(testFunctions);
         }
 
+        // The fitness cache is optional, if not defined every candidate
+        // solution is evaluated.
+        experiment.setFitnessCache(optionalInteger(properties, FITNESS_CACHE_KEY, 0),
+                optionalBoolean(properties, FITNESS_CACHE_FES_KEY, true));
+
+        // Limits of the stopping criteria not based on MaxStop.
+        experiment.setMaxTime(optionalInteger(properties, MAXTIME_KEY, 60000));
+        experiment.setTargetFitness(optionalReal(properties, TARGET_FITNESS_KEY, 0.0),
+                optionalReal(properties, TARGET_EPSILON_KEY, 1E-8));
+        experiment.setStagnation(optionalInteger(properties, STAGNATION_FES_KEY, 10000),
+                optionalReal(properties, STAGNATION_DELTA_KEY, 0.0));
+
+        // Racing is optional, if not enabled every repetition of every
+        // configuration is run.
+        experiment.setRacing(optionalBoolean(properties, RACING_KEY, false),
+                optionalInteger(properties, RACING_ROUNDS_KEY, 5),
+                optionalReal(properties, RACING_ALPHA_KEY, 0.05));
+
+        // Tuning is optional, if not enabled every configuration is run. It
+        // chooses the configurations by itself, so it cannot be raced.
+        boolean tuning = optionalBoolean(properties, TUNING_KEY, false);
+        if (tuning && optionalBoolean(properties, RACING_KEY, false)) {
+            throw new ExperimentFormatException(TUNING_KEY + " and " + RACING_KEY
+                    + " cannot be enabled at the same time.");
+        }
+        experiment.setTuning(tuning,
+                optionalInteger(properties, TUNING_SAMPLES_KEY, 27),
+                optionalInteger(properties, TUNING_ETA_KEY, 3));
+
+        // The journal is optional, if not enabled an interrupted experiment
+        // is run again from the beginning.
+        experiment.setJournal(optionalBoolean(properties, JOURNAL_KEY, false));
+
+        // Snapshots are optional, if not enabled an interrupted execution is
+        // run again from the beginning.
+        experiment.setSnapshotPeriod(optionalInteger(properties, SNAPSHOT_PERIOD_KEY, 0));
+
+        // Results are written as CSV unless the binary trace format is
+        // enabled, see BinaryTraceFormat.
+        experiment.setBinaryResults(optionalBoolean(properties, BINARY_RESULTS_KEY, false));
+
+        // Traces store each change of their value unless other policy is
+        // defined, see TracePolicy.
+        experiment.setTracePolicies(optionalTracePolicy(properties, TRACE_NP_KEY),
+                optionalTracePolicy(properties, TRACE_F_KEY),
+                optionalTracePolicy(properties, TRACE_CR_KEY),
+                optionalTracePolicy(properties, TRACE_FITNESS_KEY));
+
+        // Phase timing is optional, if not enabled only the total time of
+        // each execution is measured.
+        experiment.setPhaseTiming(optionalInteger(properties, PHASE_TIMING_KEY, 0));
+
+        // The surrogate is optional, if not defined every trial individual is
+        // evaluated.
+        String surrogate = optionalSetting(properties, SURROGATE_KEY, "");
+        if (!surrogate.isEmpty()) {
+            if (!surrogate.startsWith("sur-") || getComponentFullName(surrogate) == null) {
+                throw new ExperimentFormatException(SURROGATE_KEY + " " + surrogate + " not found.");
+            }
+            experiment.setSurrogate(surrogate);
+        }
+
         return experiment;
     }
 
@@ -483,87 +643,121 @@ public class Reader {
     }
 
     /**
-     * Loads a dataset with ARFF format.
+     * Gets the number of worker processes running the experiments.
+     *
+     * @return number of workers, 0 for running them in this process.
+     */
+    public static int getNumWorkers() {
+        return Integer.parseInt(configDataProperties.getProperty("WORKERS", "0").trim());
+    }
+
+    /**
+     * Gets the port where the worker processes connect to the coordinator.
+     *
+     * @return port of the coordinator, 0 for any free port.
+     */
+    public static int getWorkersPort() {
+        return Integer.parseInt(configDataProperties.getProperty("WORKERS_PORT", "0").trim());
+    }
+
+    /**
+     * Gets the seconds without messages after which a worker process running
+     * a task is taken as hung.
+     *
+     * @return timeout of the workers, 0 for waiting forever.
+     */
+    public static int getWorkersTimeout() {
+        return Integer.parseInt(configDataProperties.getProperty("WORKERS_TIMEOUT", "60").trim());
+    }
+
+    /**
+     * Gets the number of times the worker processes which exit are relaunched,
+     * in total.
+     *
+     * @return limit of relaunches of the workers.
+     */
+    public static int getWorkersRelaunches() {
+        return Integer.parseInt(configDataProperties.getProperty("WORKERS_RELAUNCHES", "3").trim());
+    }
+
+    /**
+     * Loads a dataset with ARFF or CSV format, parsed by DatasetParser, or with
+     * the binary columnar format described in BinaryDatasetFormat, depending
+     * on the extension of the file.
      *
      * @param path String representing the path.
      * @return a Dataset object.
      */
     public static Dataset loadDataset(String path) {
-        Stream<String> lines;
+        if (BinaryDatasetFormat.isBinaryDataset(path)) {
+            return loadBinaryDataset(path);
+        }
         Dataset dataset = null;
         try {
-            lines = Files.lines(Paths.get(path));
-            String datasetPath = path;
-            String datasetName = "";
-            String datasetFormat;
-            String datasetDescription = "";
-            String[] datasetAttributes;
-            double[][] data;
-
-            String[] strings = path.split("\\.");
-            datasetFormat = strings[strings.length - 1];
-
-            Iterator<String> it = lines.iterator();
-            String s;
-            boolean stopHeader = false;
-            ArrayList<String> attributes = new ArrayList<>();
-            while (!stopHeader & it.hasNext()) {
-                s = it.next();
-                s = s.trim();
-                if (s.startsWith("@relation") | s.startsWith("@RELATION")) {
-                    datasetName = s.substring(s.indexOf(" ")).trim();
-                } else if (s.startsWith("%")) {
-                    datasetDescription += s.replace("%", "").trim() + "\n";
-                } else if (s.startsWith("@attribute") | s.startsWith("@ATTRIBUTE")) {
-                    attributes.add(s.substring(s.indexOf(" ")).trim().split(" ")[0]);
-                } else if (s.startsWith("@data") | s.startsWith("@DATA")) {
-                    stopHeader = true;
-                }
+            dataset = DatasetParser.parse(path);
+            System.out.println("Dataset correctly loaded:\n" + dataset);
+        } catch (IOException e) {
+            System.err.println("[Reader::loadDataset]: " + e.getMessage());
+        }
+
+        return dataset;
+    }
+
+    /**
+     * Loads a dataset stored with the binary columnar format: the columns are
+     * mapped into memory instead of being read, so the loading time does not
+     * depend on the size of the dataset and the pages of the file are shared
+     * among all the processes using it.
+     *
+     * @param path String representing the path.
+     * @return a Dataset object, null if the file cannot be read.
+     */
+    public static Dataset loadBinaryDataset(String path) {
+        Dataset dataset = null;
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    BinaryDatasetFormat.FIXED_HEADER_LENGTH).order(BinaryDatasetFormat.ORDER);
+            if (header.getInt() != BinaryDatasetFormat.MAGIC) {
+                throw new IOException(path + " is not a binary columnar dataset.");
+            }
+            int version = header.getInt();
+            if (version != BinaryDatasetFormat.VERSION) {
+                throw new IOException("Unsupported binary dataset version " + version + ".");
+            }
+            long numInstances = header.getLong();
+            int numAttributes = header.getInt();
+            int headerLength = header.getInt();
+            long columnLength = numInstances * Double.BYTES;
+            if (columnLength > Integer.MAX_VALUE) {
+                throw new IOException("Columns of " + numInstances
+                        + " instances cannot be mapped.");
+            }
+            if (channel.size() < headerLength + numAttributes * columnLength) {
+                throw new IOException(path + " is truncated.");
             }
 
-            Object[] objectArray = attributes.toArray();
-            datasetAttributes = Arrays.copyOf(objectArray, objectArray.length, String[].class);
-            int numAttributes = datasetAttributes.length;
-
-            // Starts reading data.
-            String[] tempData;
-            ArrayList<Double> tempReal = new ArrayList<>();
-            ArrayList<ArrayList<Double>> tempTotal = new ArrayList<>();
-            String temp;
-            while (it.hasNext()) {
-                s = it.next();
-                s = s.trim();
-                tempData = s.split(",");
-
-                for (int i = 0; i < numAttributes; i++) {
-                    if (i < tempData.length) {
-                        temp = tempData[i];
-                        try {
-                            tempReal.add(Double.parseDouble(temp.trim()));
-                        } catch (NumberFormatException e) {
-                            tempReal.add(Double.NaN);
-                        }
-                    } else {
-                        tempReal.add(Double.NaN);
-                    }
-                }
-                tempTotal.add(tempReal);
-                tempReal = new ArrayList<>();
+            header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerLength)
+                    .order(BinaryDatasetFormat.ORDER);
+            header.position(BinaryDatasetFormat.FIXED_HEADER_LENGTH);
+            String datasetName = BinaryDatasetFormat.readString(header);
+            String datasetDescription = BinaryDatasetFormat.readString(header);
+            String[] datasetAttributes = new String[numAttributes];
+            for (int j = 0; j < numAttributes; j++) {
+                datasetAttributes[j] = BinaryDatasetFormat.readString(header);
             }
-            int numInstances = tempTotal.size();
-            data = new double[numInstances][numAttributes];
 
-            for (int i = 0; i < numInstances; i++) {
-                for (int j = 0; j < numAttributes; j++) {
-                    data[i][j] = tempTotal.get(i).get(j);
-                }
+            DoubleBuffer[] columns = new DoubleBuffer[numAttributes];
+            for (int j = 0; j < numAttributes; j++) {
+                columns[j] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        headerLength + j * columnLength, columnLength)
+                        .order(BinaryDatasetFormat.ORDER).asDoubleBuffer();
             }
 
-            dataset = new Dataset(datasetPath, datasetName, datasetFormat,
-                    datasetDescription, datasetAttributes, data);
+            dataset = new Dataset(path, datasetName, BinaryDatasetFormat.EXTENSION,
+                    datasetDescription, datasetAttributes, columns, (int) numInstances);
             System.out.println("Dataset correctly loaded:\n" + dataset);
         } catch (IOException e) {
-            System.err.println("[Reader::loadDataset]: " + e.getMessage());
+            System.err.println("[Reader::loadBinaryDataset]: " + e.getMessage());
         }
 
         return dataset;
@@ -0,0 +1,197 @@
+package planner.utils;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * ResourceUsage measures the resources used by an execution: the bytes
+ * allocated and the CPU time of the thread running it, and the garbage
+ * collections happened while it runs. Allocation and CPU time are measured by
+ * thread, so executions running at the same time in different threads do not
+ * count the ones of each other. Collections are shared by every thread, so
+ * each one is counted by every execution running when it happens and its time
+ * is split among them in proportion to the bytes each one allocated since the
+ * previous collection, since allocation triggers the collections. The
+ * measures read before stop are the resources used so far. Measures not
+ * supported by the virtual machine are -1.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class ResourceUsage {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Executions running, guarded by itself.
+     */
+    private static final ArrayList<ResourceUsage> RUNNING = new ArrayList<>();
+
+    static {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                    if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                                (CompositeData) notification.getUserData());
+                        collected(info.getGcInfo().getDuration());
+                    }
+                }, null, null);
+            }
+        }
+    }
+
+    private final long thread;
+    private final long startAllocated;
+    private final long startCPUTime;
+
+    /**
+     * Bytes allocated by the thread at the last collection.
+     */
+    private long sampledAllocated;
+
+    private long allocatedBytes = -1;
+    private double CPUTime = -1;
+    private long GCCount;
+    private double GCTime;
+    private boolean stopped;
+
+    private ResourceUsage() {
+        thread = Thread.currentThread().getId();
+        startAllocated = allocatedBytes(thread);
+        startCPUTime = THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+        sampledAllocated = startAllocated;
+    }
+
+    /**
+     * Starts measuring the resources used by the calling thread until stop.
+     *
+     * @return the measure.
+     */
+    public static ResourceUsage start() {
+        ResourceUsage usage = new ResourceUsage();
+        synchronized (RUNNING) {
+            RUNNING.add(usage);
+        }
+        return usage;
+    }
+
+    /**
+     * Stops measuring, it must be called by the thread which started it.
+     */
+    public void stop() {
+        synchronized (RUNNING) {
+            RUNNING.remove(this);
+            measure();
+            stopped = true;
+        }
+    }
+
+    /**
+     * Measures the bytes allocated and the CPU time of the thread since the
+     * start, holding the lock of RUNNING.
+     */
+    private void measure() {
+        long allocated = allocatedBytes(thread);
+        if (startAllocated >= 0 && allocated >= 0) {
+            allocatedBytes = allocated - startAllocated;
+        }
+        long time = thread == Thread.currentThread().getId() ? THREADS.getCurrentThreadCpuTime()
+                : THREADS.isThreadCpuTimeSupported() ? THREADS.getThreadCpuTime(thread) : -1;
+        if (startCPUTime >= 0 && time >= 0) {
+            CPUTime = (time - startCPUTime) / 1e6;
+        }
+    }
+
+    /**
+     * Attributes a collection to the executions running.
+     *
+     * @param duration time of the collection in milliseconds.
+     */
+    private static void collected(long duration) {
+        synchronized (RUNNING) {
+            long[] allocated = new long[RUNNING.size()];
+            long total = 0;
+            for (int i = 0; i < allocated.length; i++) {
+                ResourceUsage usage = RUNNING.get(i);
+                long bytes = allocatedBytes(usage.thread);
+                allocated[i] = Math.max(0, bytes - usage.sampledAllocated);
+                usage.sampledAllocated = bytes;
+                total += allocated[i];
+            }
+            for (int i = 0; i < allocated.length; i++) {
+                ResourceUsage usage = RUNNING.get(i);
+                usage.GCCount++;
+                usage.GCTime += total > 0 ? duration * (double) allocated[i] / total
+                        : (double) duration / allocated.length;
+            }
+        }
+    }
+
+    private static long allocatedBytes(long thread) {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(thread);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the bytes allocated by the thread.
+     *
+     * @return bytes allocated, -1 if not supported.
+     */
+    public long getAllocatedBytes() {
+        synchronized (RUNNING) {
+            if (!stopped) {
+                measure();
+            }
+            return allocatedBytes;
+        }
+    }
+
+    /**
+     * Gets the CPU time of the thread.
+     *
+     * @return CPU time in milliseconds, -1 if not supported.
+     */
+    public double getCPUTime() {
+        synchronized (RUNNING) {
+            if (!stopped) {
+                measure();
+            }
+            return CPUTime;
+        }
+    }
+
+    /**
+     * Gets the number of collections happened while measuring.
+     *
+     * @return number of collections.
+     */
+    public long getGCCount() {
+        synchronized (RUNNING) {
+            return GCCount;
+        }
+    }
+
+    /**
+     * Gets the share of the time of the collections attributed to the
+     * thread.
+     *
+     * @return time in milliseconds.
+     */
+    public double getGCTime() {
+        synchronized (RUNNING) {
+            return GCTime;
+        }
+    }
+}
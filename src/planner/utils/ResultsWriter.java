@@ -0,0 +1,111 @@
+package planner.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ResultsWriter streams the results of the executions of an Experiment to
+ * their files, one file per configuration, as soon as each execution
+ * finishes, so the results do not have to be kept in memory until the
+ * Experiment finishes. The files are opened for each execution, so an
+ * Experiment with many configurations does not keep many files open. The
+ * results are written as CSV or with the compact format described in
+ * BinaryTraceFormat.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class ResultsWriter {
+
+    private final String folder;
+    private final boolean binary;
+
+    /**
+     * Number of results in each file.
+     */
+    private final int[] written;
+
+    /**
+     * Creates the files of the results, empty.
+     *
+     * @param folder folder where the files are written.
+     * @param files number of files, one per configuration.
+     * @param binary TRUE for the binary trace format, FALSE for CSV.
+     * @throws IOException if a file cannot be created.
+     */
+    public ResultsWriter(String folder, int files, boolean binary) throws IOException {
+        this.folder = folder;
+        this.binary = binary;
+        written = new int[files];
+        for (int i = 0; i < files; i++) {
+            reset(i);
+        }
+    }
+
+    /**
+     * Empties a file, discarding the results already written in it.
+     *
+     * @param file index of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void reset(int file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path(file)))) {
+            if (binary) {
+                out.writeInt(BinaryTraceFormat.MAGIC);
+                out.writeInt(BinaryTraceFormat.VERSION);
+            }
+        }
+        written[file] = 0;
+    }
+
+    /**
+     * Appends the results of an execution to a file.
+     *
+     * @param file index of the file.
+     * @param results results of the execution.
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void write(int file, ExecutionResults results) throws IOException {
+        if (binary) {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            results.writeCompact(new DataOutputStream(record));
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(path(file), StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+                out.writeInt(record.size());
+                record.writeTo(out);
+            }
+        } else {
+            try (BufferedWriter out = Files.newBufferedWriter(path(file), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                results.writeCSV(out);
+            }
+        }
+        written[file]++;
+    }
+
+    /**
+     * Gets the number of results in the files.
+     *
+     * @return number of results.
+     */
+    public synchronized int getNumWritten() {
+        int n = 0;
+        for (int w : written) {
+            n += w;
+        }
+        return n;
+    }
+
+    private Path path(int file) {
+        return Paths.get(folder + "/Execution" + file + "." + (binary ? BinaryTraceFormat.EXTENSION : "csv"));
+    }
+}
@@ -0,0 +1,167 @@
+package planner.utils;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Telemetry is a single-producer ring buffer carrying the observations of the
+ * convergence traces of an execution from the thread running its algorithm to
+ * a background consumer thread, shared by every execution, which applies the
+ * trace policies and stores the observations in the traces. The algorithm
+ * thread only writes fixed-size primitive events in preallocated arrays, so
+ * it never allocates, reads the clock or waits for the traces while the
+ * buffer has room; when the buffer is full, it waits for the consumer.
+ *
+ * The time of an observation is taken by the consumer when it stores it,
+ * which may be later than the observation by the time the consumer takes to
+ * drain the buffer, usually less than a millisecond.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class Telemetry {
+
+    /**
+     * Kinds of events, one per convergence trace.
+     */
+    static final int NP = 0;
+    static final int F = 1;
+    static final int CR = 2;
+    static final int FITNESS = 3;
+
+    /**
+     * Number of events of the buffer, a power of two.
+     */
+    private static final int CAPACITY = 1 << 13;
+    private static final int MASK = CAPACITY - 1;
+
+    /**
+     * Time the consumer sleeps when every buffer is empty.
+     */
+    private static final long IDLE_NANOS = 1_000_000;
+
+    /**
+     * Buffers of the executions running.
+     */
+    private static final CopyOnWriteArrayList<Telemetry> ACTIVE = new CopyOnWriteArrayList<>();
+
+    private static final Thread CONSUMER = startConsumer();
+
+    private final ExecutionResults results;
+    private final int[] kinds = new int[CAPACITY];
+    private final double[] values = new double[CAPACITY];
+    private final int[] generations = new int[CAPACITY];
+    private final int[] FEs = new int[CAPACITY];
+
+    /**
+     * Sequence of the next event to publish, written by the producer after
+     * the event, and of the next event to consume, written by the consumer
+     * after storing the event.
+     */
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    /**
+     * Copies of the sequences owned by the producer, so it reads the sequence
+     * of the consumer only when the buffer looks full.
+     */
+    private long next;
+    private long consumedCache;
+
+    /**
+     * Creates the buffer of an execution and registers it in the consumer.
+     *
+     * @param results results whose traces receive the observations.
+     */
+    Telemetry(ExecutionResults results) {
+        this.results = results;
+        ACTIVE.add(this);
+    }
+
+    /**
+     * Publishes an event, waiting for the consumer if the buffer is full. Only
+     * the thread running the execution may call it.
+     *
+     * @param kind kind of event.
+     * @param value observed value.
+     * @param generation current generation.
+     * @param FE current FE.
+     */
+    void publish(int kind, double value, int generation, int FE) {
+        long seq = next;
+        if (seq - consumedCache >= CAPACITY) {
+            consumedCache = consumed.get();
+            while (seq - consumedCache >= CAPACITY) {
+                LockSupport.unpark(CONSUMER);
+                Thread.yield();
+                consumedCache = consumed.get();
+            }
+        }
+        int i = (int) seq & MASK;
+        kinds[i] = kind;
+        values[i] = value;
+        generations[i] = generation;
+        FEs[i] = FE;
+        next = seq + 1;
+        published.lazySet(next);
+    }
+
+    /**
+     * Waits until the consumer has stored every event published, so the
+     * traces can be read by the thread running the execution.
+     */
+    void flush() {
+        while (consumed.get() < next) {
+            LockSupport.unpark(CONSUMER);
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Waits for the events published and unregisters the buffer.
+     */
+    void close() {
+        flush();
+        ACTIVE.remove(this);
+    }
+
+    /**
+     * Stores the events published since the last call. Only the consumer may
+     * call it.
+     *
+     * @return number of events stored.
+     */
+    private int drain() {
+        long start = consumed.get();
+        long end = published.get();
+        for (long seq = start; seq < end; seq++) {
+            int i = (int) seq & MASK;
+            try {
+                results.observe(kinds[i], values[i], generations[i], FEs[i]);
+            } catch (RuntimeException e) {
+                System.err.println("[Telemetry::drain]: " + e);
+            }
+        }
+        consumed.lazySet(end);
+        return (int) (end - start);
+    }
+
+    private static Thread startConsumer() {
+        Thread consumer = new Thread(() -> {
+            while (true) {
+                int drained = 0;
+                for (Telemetry t : ACTIVE) {
+                    drained += t.drain();
+                }
+                if (drained == 0) {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+        }, "telemetry");
+        consumer.setDaemon(true);
+        consumer.start();
+        return consumer;
+    }
+}
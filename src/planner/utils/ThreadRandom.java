@@ -0,0 +1,133 @@
+package planner.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * ThreadRandom is a pseudorandom number generator whose state is kept
+ * separately for each thread, so several executions can run at the same time
+ * sharing the Random object of the DEFramework without interfering with each
+ * other: the numbers generated by a thread only depend on the last seed set by
+ * that thread. It uses the same linear congruential generator as Random, so a
+ * single thread produces the same sequence as a Random with the same seed.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class ThreadRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    /**
+     * State of the generator for each thread. Threads which have not set a
+     * seed start from a seed drawn from a shared Random.
+     */
+    private final ThreadLocal<State> states;
+
+    /**
+     * Random used for the initial seeds of the threads.
+     */
+    private final Random seeds;
+
+    public ThreadRandom() {
+        seeds = new Random();
+        states = ThreadLocal.withInitial(() -> new State(nextSeed()));
+    }
+
+    private synchronized long nextSeed() {
+        return seeds.nextLong();
+    }
+
+    /**
+     * Sets the seed of the generator for the calling thread.
+     *
+     * @param seed initial seed.
+     */
+    @Override
+    public void setSeed(long seed) {
+        // The constructor of Random sets a seed before the states are created.
+        if (states != null) {
+            states.get().setSeed(seed);
+        }
+    }
+
+    /**
+     * Writes the state of the generator of the calling thread, so the
+     * sequence can be resumed later with readState.
+     *
+     * @param out destination of the state.
+     * @throws IOException if the state cannot be written.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        State state = states.get();
+        out.writeLong(state.seed);
+        out.writeBoolean(state.haveNextNextGaussian);
+        out.writeDouble(state.nextNextGaussian);
+    }
+
+    /**
+     * Replaces the state of the generator of the calling thread with a state
+     * written by writeState.
+     *
+     * @param in source of the state.
+     * @throws IOException if the state cannot be read.
+     */
+    public void readState(DataInput in) throws IOException {
+        State state = states.get();
+        state.seed = in.readLong();
+        state.haveNextNextGaussian = in.readBoolean();
+        state.nextNextGaussian = in.readDouble();
+    }
+
+    @Override
+    protected int next(int bits) {
+        State state = states.get();
+        state.seed = (state.seed * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state.seed >>> (48 - bits));
+    }
+
+    @Override
+    public double nextGaussian() {
+        State state = states.get();
+        if (state.haveNextNextGaussian) {
+            state.haveNextNextGaussian = false;
+            return state.nextNextGaussian;
+        }
+        double v1, v2, s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        state.nextNextGaussian = v2 * multiplier;
+        state.haveNextNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    /**
+     * State of the generator for one thread.
+     */
+    private static class State {
+
+        private long seed;
+        private double nextNextGaussian;
+        private boolean haveNextNextGaussian;
+
+        private State(long seed) {
+            setSeed(seed);
+        }
+
+        private void setSeed(long seed) {
+            this.seed = (seed ^ MULTIPLIER) & MASK;
+            haveNextNextGaussian = false;
+        }
+    }
+}
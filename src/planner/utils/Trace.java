@@ -0,0 +1,163 @@
+package planner.utils;
+
+import java.util.Arrays;
+
+/**
+ * Trace is a convergence trace of an execution: a sequence of observations of
+ * a value, each one with the time, the generation and the FE when it was
+ * observed. The observations are stored in growable primitive columns, one
+ * array per column instead of one per observation.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class Trace {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] values;
+    private long[] times;
+    private int[] generations;
+    private int[] FEs;
+    private int size;
+
+    /**
+     * Number of leading observations unchanged since the last call to
+     * takeTail.
+     */
+    private int unchanged;
+
+    public Trace() {
+        values = new double[INITIAL_CAPACITY];
+        times = new long[INITIAL_CAPACITY];
+        generations = new int[INITIAL_CAPACITY];
+        FEs = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds an observation at the end of the trace.
+     *
+     * @param value observed value.
+     * @param time time of the observation in milliseconds.
+     * @param generation generation of the observation.
+     * @param FE FE of the observation.
+     */
+    public void add(double value, long time, int generation, int FE) {
+        if (size == values.length) {
+            int capacity = 2 * size;
+            values = Arrays.copyOf(values, capacity);
+            times = Arrays.copyOf(times, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+            FEs = Arrays.copyOf(FEs, capacity);
+        }
+        values[size] = value;
+        times[size] = time;
+        generations[size] = generation;
+        FEs[size] = FE;
+        size++;
+    }
+
+    /**
+     * Adds every observation of another trace.
+     *
+     * @param trace observations added, in order.
+     */
+    public void addAll(Trace trace) {
+        for (int i = 0; i < trace.size; i++) {
+            add(trace.values[i], trace.times[i], trace.generations[i], trace.FEs[i]);
+        }
+    }
+
+    /**
+     * Copies the observations added or moved since the last call, so a copy
+     * of the trace is kept up to date without copying it whole: the copy is
+     * truncated to the index returned and the tail is added to it.
+     *
+     * @param tail empty trace where the observations are copied.
+     * @return index of the first observation copied.
+     */
+    public int takeTail(Trace tail) {
+        int from = Math.min(unchanged, size);
+        for (int i = from; i < size; i++) {
+            tail.add(values[i], times[i], generations[i], FEs[i]);
+        }
+        unchanged = size;
+        return from;
+    }
+
+    /**
+     * Removes the observations from an index on.
+     *
+     * @param size number of observations kept.
+     */
+    public void truncate(int size) {
+        this.size = Math.min(this.size, size);
+        unchanged = Math.min(unchanged, this.size);
+    }
+
+    /**
+     * Removes an observation, keeping the order of the rest.
+     *
+     * @param i index of the observation.
+     */
+    void remove(int i) {
+        int moved = size - i - 1;
+        System.arraycopy(values, i + 1, values, i, moved);
+        System.arraycopy(times, i + 1, times, i, moved);
+        System.arraycopy(generations, i + 1, generations, i, moved);
+        System.arraycopy(FEs, i + 1, FEs, i, moved);
+        size--;
+        unchanged = Math.min(unchanged, i);
+    }
+
+    /**
+     * Removes every observation.
+     */
+    public void clear() {
+        size = 0;
+        unchanged = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getValue(int i) {
+        return values[i];
+    }
+
+    public long getTime(int i) {
+        return times[i];
+    }
+
+    public int getGeneration(int i) {
+        return generations[i];
+    }
+
+    public int getFE(int i) {
+        return FEs[i];
+    }
+
+    /**
+     * Gets the last observed value.
+     *
+     * @return the last value, NaN if the trace is empty.
+     */
+    public double getLastValue() {
+        return size == 0 ? Double.NaN : values[size - 1];
+    }
+
+    /**
+     * Gets the FE of the last observation.
+     *
+     * @return the FE, -1 if the trace is empty.
+     */
+    public int getLastFE() {
+        return size == 0 ? -1 : FEs[size - 1];
+    }
+}
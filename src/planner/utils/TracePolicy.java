@@ -0,0 +1,213 @@
+package planner.utils;
+
+import java.util.SplittableRandom;
+
+/**
+ * TracePolicy decides which observations of a value are stored in its
+ * convergence trace, so long executions do not fill the memory with traces
+ * growing with the number of FEs. Policies are defined as text:
+ * <ul>
+ * <li>changes: each time the value changes, the default.</li>
+ * <li>fes:N: the first observation after every N FEs.</li>
+ * <li>log:N: the first observation after each of N checkpoints per decade of
+ * FEs, so the beginning of the execution is observed more often.</li>
+ * <li>improvement: each time the value improves, i.e. decreases.</li>
+ * <li>reservoir:N: a uniform sample of N observations, in order.</li>
+ * <li>none: no observation.</li>
+ * </ul>
+ * Except for reservoir, policies decide from the observations already stored,
+ * so they carry no state and behave the same for resumed executions.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract class TracePolicy {
+
+    /**
+     * Default policy, storing the value each time it changes.
+     */
+    public static final String DEFAULT = "changes";
+
+    private final String description;
+
+    protected TracePolicy(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Creates a policy from its definition.
+     *
+     * @param definition definition of the policy, see TracePolicy.
+     * @return a new policy.
+     * @throws IllegalArgumentException if the definition is not valid.
+     */
+    public static TracePolicy parse(String definition) {
+        String[] parts = definition.trim().toLowerCase().split(":");
+        String name = parts[0];
+        if (parts.length == 1) {
+            switch (name) {
+                case "changes":
+                    return new Changes();
+                case "improvement":
+                    return new Improvement();
+                case "none":
+                    return new None();
+                default:
+                    break;
+            }
+        } else if (parts.length == 2) {
+            int n;
+            try {
+                n = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                n = 0;
+            }
+            if (n > 0) {
+                switch (name) {
+                    case "fes":
+                        return new EveryFEs(n);
+                    case "log":
+                        return new LogSpaced(n);
+                    case "reservoir":
+                        return new Reservoir(n);
+                    default:
+                        break;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Trace policy " + definition + " not valid.");
+    }
+
+    /**
+     * Observes a value, storing it in the trace if the policy selects it.
+     *
+     * @param trace the trace.
+     * @param value observed value.
+     * @param generation current generation.
+     * @param FE current FE.
+     */
+    public abstract void observe(Trace trace, double value, int generation, int FE);
+
+    protected static void store(Trace trace, double value, int generation, int FE) {
+        trace.add(value, System.currentTimeMillis(), generation, FE);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private static class Changes extends TracePolicy {
+
+        Changes() {
+            super("changes");
+        }
+
+        @Override
+        public void observe(Trace trace, double value, int generation, int FE) {
+            if (trace.isEmpty() || trace.getLastValue() != value) {
+                store(trace, value, generation, FE);
+            }
+        }
+    }
+
+    private static class Improvement extends TracePolicy {
+
+        Improvement() {
+            super("improvement");
+        }
+
+        @Override
+        public void observe(Trace trace, double value, int generation, int FE) {
+            if (trace.isEmpty() || value < trace.getLastValue()) {
+                store(trace, value, generation, FE);
+            }
+        }
+    }
+
+    private static class None extends TracePolicy {
+
+        None() {
+            super("none");
+        }
+
+        @Override
+        public void observe(Trace trace, double value, int generation, int FE) {
+        }
+    }
+
+    private static class EveryFEs extends TracePolicy {
+
+        private final int period;
+
+        EveryFEs(int period) {
+            super("fes:" + period);
+            this.period = period;
+        }
+
+        @Override
+        public void observe(Trace trace, double value, int generation, int FE) {
+            if (trace.isEmpty() || FE / period > trace.getLastFE() / period) {
+                store(trace, value, generation, FE);
+            }
+        }
+    }
+
+    private static class LogSpaced extends TracePolicy {
+
+        private final int perDecade;
+
+        LogSpaced(int perDecade) {
+            super("log:" + perDecade);
+            this.perDecade = perDecade;
+        }
+
+        @Override
+        public void observe(Trace trace, double value, int generation, int FE) {
+            if (trace.isEmpty() || checkpoint(FE) > checkpoint(trace.getLastFE())) {
+                store(trace, value, generation, FE);
+            }
+        }
+
+        /**
+         * Gets the index of the last checkpoint reached by a number of FEs.
+         */
+        private int checkpoint(int FE) {
+            return (int) Math.floor(perDecade * Math.log10(FE + 1.0));
+        }
+    }
+
+    /**
+     * Reservoir sampling keeping the order of the observations: when a new
+     * observation replaces a stored one, the stored one is removed and the new
+     * one is added at the end. Its random numbers do not come from the random
+     * object of the execution, so sampling does not change the execution.
+     */
+    private static class Reservoir extends TracePolicy {
+
+        private final int capacity;
+        private final SplittableRandom random;
+        private long observed;
+
+        Reservoir(int capacity) {
+            super("reservoir:" + capacity);
+            this.capacity = capacity;
+            this.random = new SplittableRandom(capacity);
+        }
+
+        @Override
+        public void observe(Trace trace, double value, int generation, int FE) {
+            observed++;
+            if (trace.size() < capacity) {
+                store(trace, value, generation, FE);
+            } else {
+                long i = random.nextLong(observed);
+                if (i < capacity) {
+                    trace.remove((int) i);
+                    store(trace, value, generation, FE);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package planner.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * TraceReader reads one by one the results of the executions stored in a file
+ * with the format described in BinaryTraceFormat, so the file does not have
+ * to fit in memory.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class TraceReader implements Closeable {
+
+    private final DataInputStream in;
+
+    /**
+     * Opens a binary trace file and checks its header.
+     *
+     * @param path path of the file.
+     * @throws IOException if the file cannot be opened or it has not the
+     * binary trace format.
+     */
+    public TraceReader(String path) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(path))));
+        try {
+            if (in.readInt() != BinaryTraceFormat.MAGIC) {
+                throw new IOException("TraceReader[" + path + " is not a binary trace file.]");
+            }
+            int version = in.readInt();
+            if (version != BinaryTraceFormat.VERSION) {
+                throw new IOException("TraceReader[Version " + version + " of " + path + " not supported.]");
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the results of the next execution.
+     *
+     * @return the results, null at the end of the file.
+     * @throws IOException if the results cannot be read.
+     */
+    public ExecutionResults next() throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        byte[] record = new byte[length];
+        in.readFully(record);
+        return ExecutionResults.readCompact(new DataInputStream(new ByteArrayInputStream(record)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -1,33 +1,68 @@
 package planner.utils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.nio.file.StandardOpenOption;
 import planner.configuration.Experiment;
 
 public class Writer {
 
+    /**
+     * Writes the description of an experiment. The results of its executions
+     * are written by ResultsWriter while it runs.
+     *
+     * @param experiment the experiment.
+     */
     public static void writeExperimentInfo(Experiment experiment) {
         String experimentPath = Reader.getExperimentPath(experiment.getEXPERIMENT_ID());
         String experimentFolderPath = experimentPath.substring(0,experimentPath.lastIndexOf("/"));
         System.out.println(experimentFolderPath);
         String experimentInfoPath = experimentFolderPath + "/ExperimentInfo.log";
-        String executionsInfoPath = experimentFolderPath + "/Execution";
         try {
             Files.write(Paths.get(experimentInfoPath), experiment.toString().getBytes());
-            int i = 0;
-            for (ArrayList<ExecutionResults> executionResults: experiment.getExecutionsResults()) {
-                String executionData = "";
-                for (ExecutionResults results: executionResults) {
-                    executionData += results.toString();
-                }
-                Files.write(Paths.get(executionsInfoPath + i + ".csv"), executionData.getBytes());
-                i++;
-            }
         } catch (IOException ex) {
             System.err.println("Output path not found.");
         }
     }
 
+    /**
+     * Stores a dataset with the binary columnar format described in
+     * BinaryDatasetFormat, so later loads can map it instead of parsing it.
+     *
+     * @param d dataset to be stored.
+     * @param path path of the new file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void writeBinaryDataset(Dataset d, String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = BinaryDatasetFormat.encodeHeader(d);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 16).order(BinaryDatasetFormat.ORDER);
+            DoubleBuffer values = chunk.asDoubleBuffer();
+            for (int j = 0; j < d.getNumAttributes(); j++) {
+                DoubleBuffer column = d.getColumn(j);
+                column.position(0);
+                while (column.hasRemaining()) {
+                    values.clear();
+                    int n = Math.min(values.capacity(), column.remaining());
+                    for (int i = 0; i < n; i++) {
+                        values.put(column.get());
+                    }
+                    chunk.clear().limit(n * Double.BYTES);
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                }
+            }
+        }
+    }
+
 }
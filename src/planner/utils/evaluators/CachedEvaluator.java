@@ -0,0 +1,275 @@
+package planner.utils.evaluators;
+
+import exceptions.IncompatibleConfigurationException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import planner.configuration.Execution;
+
+/**
+ * CachedEvaluator is an Evaluator which keeps the fitness of the last candidate
+ * solutions evaluated by another Evaluator, so a candidate solution identical
+ * to one already evaluated is not evaluated again. Genotypes are identified by
+ * the raw bits of their genes and are always compared completely. The number
+ * of candidate solutions kept is bounded: when it is full, the CLOCK policy
+ * chooses a candidate solution not used recently to be dropped.
+ *
+ * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
+ * @version 1.0
+ * @since 1.0
+ */
+public class CachedEvaluator implements Evaluator {
+
+    /**
+     * Configuration of the current execution.
+     */
+    private final Execution exe;
+
+    /**
+     * Evaluator whose evaluations are kept.
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * TRUE if the candidate solutions found in the cache count as fitness
+     * evaluations, FALSE otherwise.
+     */
+    private final boolean hitsCountFEs;
+
+    /**
+     * Position of each genotype kept in the cache.
+     */
+    private final HashMap<Genotype, Integer> slots;
+
+    private final Genotype[] genotypes;
+    private final double[] fitness;
+
+    /**
+     * Reference bit of each position of the cache for the CLOCK policy.
+     */
+    private final boolean[] referenced;
+    private int hand;
+    private int size;
+
+    /**
+     * Results of the last candidate solutions evaluated: TRUE if found in the
+     * cache, FALSE otherwise.
+     */
+    private boolean[] lastHits;
+
+    /**
+     * Constructor.
+     *
+     * @param exe configuration of the current execution.
+     * @param evaluator evaluator whose evaluations are kept.
+     * @param capacity maximum number of candidate solutions kept.
+     * @param hitsCountFEs TRUE if the candidate solutions found in the cache
+     * count as fitness evaluations, FALSE otherwise.
+     */
+    public CachedEvaluator(Execution exe, Evaluator evaluator, int capacity, boolean hitsCountFEs) {
+        this.exe = exe;
+        this.evaluator = evaluator;
+        this.hitsCountFEs = hitsCountFEs;
+        slots = new HashMap<>(Math.max(16, (int) (capacity / 0.75f) + 1));
+        genotypes = new Genotype[capacity];
+        fitness = new double[capacity];
+        referenced = new boolean[capacity];
+        lastHits = new boolean[1];
+    }
+
+    /**
+     * Gets the evaluator whose evaluations are kept.
+     *
+     * @return the evaluator.
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    @Override
+    public double evaluate(double[] genotype) throws IncompatibleConfigurationException {
+        if (lastHits.length != 1) {
+            lastHits = new boolean[1];
+        }
+        lastHits[0] = false;
+        Integer slot = slots.get(new Genotype(genotype));
+        if (slot != null) {
+            lastHits[0] = true;
+            return hit(slot);
+        }
+        double f = evaluator.evaluate(genotype);
+        exe.getResults().incrCacheMisses();
+        store(genotype, f);
+        return f;
+    }
+
+    /**
+     * Evaluates several candidate solutions, giving only those not found in
+     * the cache to the evaluator at once.
+     *
+     * @param candidates candidate solutions.
+     * @return fitness of each candidate solution.
+     * @throws exceptions.IncompatibleConfigurationException when the dimension
+     * of the problem does not fit with the dimensionality of the function used
+     * as evaluator.
+     */
+    @Override
+    public double[] evaluatePopulation(double[][] candidates) throws IncompatibleConfigurationException {
+        boolean[] hits = new boolean[candidates.length];
+        double[] values = new double[candidates.length];
+        ArrayList<Integer> misses = new ArrayList<>();
+        for (int i = 0; i < candidates.length; i++) {
+            Integer slot = slots.get(new Genotype(candidates[i]));
+            if (slot != null) {
+                hits[i] = true;
+                values[i] = hit(slot);
+            } else {
+                misses.add(i);
+            }
+        }
+
+        double[][] missed = new double[misses.size()][];
+        for (int m = 0; m < missed.length; m++) {
+            missed[m] = candidates[misses.get(m)];
+        }
+        double[] missedValues = evaluator.evaluatePopulation(missed);
+        for (int m = 0; m < missed.length; m++) {
+            values[misses.get(m)] = missedValues[m];
+            exe.getResults().incrCacheMisses();
+            store(missed[m], missedValues[m]);
+        }
+        lastHits = hits;
+        return values;
+    }
+
+    /**
+     * Candidate solutions found in the cache only count as fitness evaluations
+     * if configured so.
+     *
+     * @param i index of the candidate solution in the last evaluation.
+     * @return TRUE if it counts as a fitness evaluation, FALSE otherwise.
+     */
+    @Override
+    public boolean isCountedEvaluation(int i) {
+        return hitsCountFEs || !lastHits[i];
+    }
+
+    /**
+     * The evaluations kept are dropped if the evaluator changes the way the
+     * candidate solutions are evaluated.
+     *
+     * @param bestFitness fitness of the best individual of the population.
+     * @return TRUE if the population must be evaluated again, FALSE otherwise.
+     */
+    @Override
+    public boolean nextGeneration(double bestFitness) {
+        boolean changed = evaluator.nextGeneration(bestFitness);
+        if (changed) {
+            clear();
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean finalEvaluation() {
+        boolean changed = evaluator.finalEvaluation();
+        if (changed) {
+            clear();
+        }
+        return changed;
+    }
+
+    private double hit(int slot) {
+        referenced[slot] = true;
+        exe.getResults().incrCacheHits();
+        return fitness[slot];
+    }
+
+    /**
+     * Keeps the fitness of a candidate solution, dropping with the CLOCK policy
+     * a candidate solution not used since the last turn of the hand if the
+     * cache is full. A candidate solution already kept, such as one repeated
+     * among the misses of a population, is not kept twice.
+     *
+     * @param genotype candidate solution, it is copied.
+     * @param f fitness of the candidate solution.
+     */
+    private void store(double[] genotype, double f) {
+        if (genotypes.length == 0 || slots.containsKey(new Genotype(genotype))) {
+            return;
+        }
+        int slot;
+        if (size < genotypes.length) {
+            slot = size++;
+        } else {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % genotypes.length;
+            }
+            slot = hand;
+            hand = (hand + 1) % genotypes.length;
+            slots.remove(genotypes[slot], slot);
+        }
+        genotypes[slot] = new Genotype(genotype.clone());
+        fitness[slot] = f;
+        referenced[slot] = false;
+        slots.put(genotypes[slot], slot);
+    }
+
+    /**
+     * Drops every candidate solution kept.
+     */
+    private void clear() {
+        slots.clear();
+        for (int i = 0; i < size; i++) {
+            genotypes[i] = null;
+            referenced[i] = false;
+        }
+        size = 0;
+        hand = 0;
+    }
+
+    @Override
+    public String toString() {
+        return evaluator.toString();
+    }
+
+    /**
+     * Key of the cache: a genotype compared by the raw bits of its genes.
+     */
+    private static class Genotype {
+
+        private final double[] genes;
+        private final int hash;
+
+        private Genotype(double[] genes) {
+            this.genes = genes;
+            long h = genes.length;
+            for (double gene : genes) {
+                h = (h + Double.doubleToRawLongBits(gene)) * 0x9E3779B97F4A7C15L;
+            }
+            this.hash = (int) (h ^ (h >>> 32));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Genotype)) {
+                return false;
+            }
+            Genotype other = (Genotype) o;
+            if (hash != other.hash || genes.length != other.genes.length) {
+                return false;
+            }
+            for (int i = 0; i < genes.length; i++) {
+                if (Double.doubleToRawLongBits(genes[i]) != Double.doubleToRawLongBits(other.genes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -22,4 +22,58 @@ public interface Evaluator {
      * as evaluator.
      */
     public abstract double evaluate(double[] genotype) throws IncompatibleConfigurationException;
+
+    /**
+     * Evaluates several candidate solutions at once.
+     *
+     * @param genotypes candidate solutions.
+     * @return fitness of each candidate solution.
+     * @throws exceptions.IncompatibleConfigurationException when the dimension
+     * of the problem does not fit with the dimensionality of the function used
+     * as evaluator.
+     */
+    public default double[] evaluatePopulation(double[][] genotypes) throws IncompatibleConfigurationException {
+        double[] fitness = new double[genotypes.length];
+        for (int i = 0; i < genotypes.length; i++) {
+            fitness[i] = evaluate(genotypes[i]);
+        }
+        return fitness;
+    }
+
+    /**
+     * Checks if a candidate solution of the last evaluation counts as a
+     * fitness evaluation of the execution.
+     *
+     * @param i index of the candidate solution in the last call to
+     * evaluatePopulation, 0 after a call to evaluate.
+     * @return TRUE if it counts as a fitness evaluation, FALSE otherwise.
+     */
+    public default boolean isCountedEvaluation(int i) {
+        return true;
+    }
+
+    /**
+     * Notifies the Evaluator that a generation has been completed, so it can
+     * adapt the way the next candidate solutions are evaluated.
+     *
+     * @param bestFitness fitness of the best individual of the population.
+     * @return TRUE if the fitness already computed is no longer comparable with
+     * the new evaluations and the population must be evaluated again, FALSE
+     * otherwise.
+     */
+    public default boolean nextGeneration(double bestFitness) {
+        return false;
+    }
+
+    /**
+     * Notifies the Evaluator that the evolution has finished, so the following
+     * evaluations are the ones used for choosing the final solution.
+     *
+     * @return TRUE if the fitness computed during the evolution was an
+     * approximation and the population must be evaluated again, FALSE
+     * otherwise.
+     */
+    public default boolean finalEvaluation() {
+        return false;
+    }
 }
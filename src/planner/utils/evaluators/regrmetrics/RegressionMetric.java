@@ -1,9 +1,9 @@
 package planner.utils.evaluators.regrmetrics;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import planner.configuration.Execution;
-import planner.utils.CrossValidation;
-import planner.utils.Dataset;
+import static planner.utils.MathTools.RND;
+import planner.utils.Partition;
 import planner.utils.evaluators.Evaluator;
 import planner.utils.objfunctions.ObjectiveFunction;
 
@@ -23,6 +23,51 @@ public abstract class RegressionMetric implements Evaluator {
      */
     protected final Execution exe;
 
+    /**
+     * Maximum number of estimations computed at the same time when evaluating
+     * several candidates.
+     */
+    private static final long MAX_ESTIMATIONS = 1L << 22;
+
+    /**
+     * Partition with every instance of the dataset, used when there is no
+     * cross validation.
+     */
+    private Partition allInstances;
+
+    /**
+     * Indices of the training instances in a random order when evaluating with
+     * mini-batches: the mini-batch is made of the first indices of this array.
+     */
+    private int[] batchOrder;
+
+    /**
+     * Instances of the current mini-batch.
+     */
+    private Partition batch;
+
+    /**
+     * Generations evaluated with the current mini-batch.
+     */
+    private int batchGenerations;
+
+    /**
+     * Consecutive generations without improving the best fitness with the
+     * current mini-batch.
+     */
+    private int stagnantGenerations;
+
+    /**
+     * Best fitness reached with the current mini-batch.
+     */
+    private double batchBestFitness;
+
+    /**
+     * TRUE once the evolution has finished and every evaluation must use all
+     * the instances, FALSE otherwise.
+     */
+    private boolean fullEvaluation;
+
     /**
      * Constructor.
      *
@@ -51,18 +96,162 @@ public abstract class RegressionMetric implements Evaluator {
      */
     @Override
     public double evaluate(double[] genotype) {
-        double score;
-        Dataset d = exe.getDataset();
+        return evaluate(genotype, getPartition());
+    }
+
+    /**
+     * Evaluates several genotypes at once over the partition used by evaluate,
+     * letting the objective function estimate them together. The genotypes are
+     * estimated in groups so the estimations kept at the same time are
+     * bounded.
+     *
+     * @param genotypes candidate solutions.
+     * @return fitness of each genotype.
+     */
+    @Override
+    public double[] evaluatePopulation(double[][] genotypes) {
+        Partition instances = getPartition();
         ObjectiveFunction of = exe.getObjectiveFunction();
-        if (exe.getCV() != null) {
-            CrossValidation CV = exe.getCV();
-            ArrayList<double[]> instances = CV.getActivePartition();
-            double[] realValues = CV.getRealValPartition();
-            score = compute(realValues, of.getInstancesEstimations(genotype, instances));
+        double[] real = instances.getRealValues();
+        double[] fitness = new double[genotypes.length];
+        int group = (int) Math.max(1, Math.min(genotypes.length, MAX_ESTIMATIONS / Math.max(1, instances.size())));
+        for (int from = 0; from < genotypes.length; from += group) {
+            double[][] tile = Arrays.copyOfRange(genotypes, from, Math.min(genotypes.length, from + group));
+            double[][] estimations = of.getPopulationEstimations(tile, instances);
+            for (int g = 0; g < tile.length; g++) {
+                fitness[from + g] = compute(real, estimations[g]);
+            }
+        }
+        return fitness;
+    }
+
+    /**
+     * Gets the instances used for evaluating the candidates: the current
+     * mini-batch, the training partition of the cross validation or the whole
+     * dataset.
+     *
+     * @return the partition used for the evaluations.
+     */
+    private Partition getPartition() {
+        Partition instances;
+        if (isMiniBatchActive()) {
+            instances = batch;
+        } else if (exe.getCV() != null) {
+            instances = exe.getCV().getTrainingPartition(exe.getFold());
         } else {
             // Executes an independent execution.
-            score = compute(d.getPredictionValues(), of.getInstancesEstimations(genotype, d.getInstances()));
+            if (allInstances == null) {
+                allInstances = new Partition(exe.getDataset());
+            }
+            instances = allInstances;
+        }
+        return instances;
+    }
+
+    /**
+     * Evaluates the genotype given with a concrete configured RegressionMetric
+     * over a given partition of the dataset, such as the test partition of a
+     * cross validation.
+     *
+     * @param genotype candidate solution.
+     * @param instances instances used for the evaluation.
+     * @return fitness of the given genotype to the problem.
+     */
+    public double evaluate(double[] genotype, Partition instances) {
+        ObjectiveFunction of = exe.getObjectiveFunction();
+        return compute(instances.getRealValues(), of.getInstancesEstimations(genotype, instances));
+    }
+
+    /**
+     * Updates the mini-batch after a generation: the mini-batch grows by the
+     * configured factor once the configured number of generations has been
+     * evaluated with it, or earlier if the best fitness has not improved for a
+     * fifth of that period, since then the mini-batch is too small for telling
+     * apart the candidates. The new mini-batch keeps the instances of the
+     * previous one.
+     *
+     * @param bestFitness fitness of the best individual of the population.
+     * @return TRUE if the mini-batch has grown and the population must be
+     * evaluated again, FALSE otherwise.
+     */
+    @Override
+    public boolean nextGeneration(double bestFitness) {
+        if (!isMiniBatchActive()) {
+            return false;
+        }
+        batchGenerations++;
+        if (bestFitness < batchBestFitness) {
+            batchBestFitness = bestFitness;
+            stagnantGenerations = 0;
+        } else {
+            stagnantGenerations++;
+        }
+
+        int period = exe.getMiniBatchPeriod();
+        boolean grows = batchGenerations >= period
+                || stagnantGenerations >= Math.max(1, period / 5);
+        if (grows) {
+            int size = (int) Math.ceil(batch.size() * Math.max(1.0, exe.getMiniBatchGrowth()));
+            updateMiniBatch(Math.max(size, batch.size() + 1));
         }
-        return score;
+        return grows;
+    }
+
+    /**
+     * Disables the mini-batches, so the final solution is chosen with all the
+     * instances.
+     *
+     * @return TRUE if the evolution was evaluated with mini-batches, FALSE
+     * otherwise.
+     */
+    @Override
+    public boolean finalEvaluation() {
+        boolean approximated = isMiniBatchActive();
+        fullEvaluation = true;
+        return approximated;
+    }
+
+    /**
+     * Checks if the candidates are being evaluated over a mini-batch of the
+     * training instances instead of all of them.
+     *
+     * @return TRUE if the evaluation uses a mini-batch, FALSE otherwise.
+     */
+    private boolean isMiniBatchActive() {
+        if (fullEvaluation || exe.getMiniBatchSize() <= 0) {
+            return false;
+        }
+        if (batchOrder == null) {
+            Partition instances;
+            if (exe.getCV() != null) {
+                instances = exe.getCV().getTrainingPartition(exe.getFold());
+            } else {
+                instances = new Partition(exe.getDataset());
+            }
+            batchOrder = new int[instances.size()];
+            for (int i = 0; i < batchOrder.length; i++) {
+                batchOrder[i] = instances.getIndex(i);
+            }
+            for (int i = batchOrder.length - 1; i > 0; i--) {
+                int j = RND.nextInt(i + 1);
+                int aux = batchOrder[i];
+                batchOrder[i] = batchOrder[j];
+                batchOrder[j] = aux;
+            }
+            updateMiniBatch(exe.getMiniBatchSize());
+        }
+        return batch.size() < batchOrder.length;
+    }
+
+    /**
+     * Sets the size of the mini-batch.
+     *
+     * @param size new number of instances of the mini-batch.
+     */
+    private void updateMiniBatch(int size) {
+        batch = new Partition(exe.getDataset(), batchOrder, 0, Math.min(size, batchOrder.length));
+        batchGenerations = 0;
+        stagnantGenerations = 0;
+        batchBestFitness = Double.MAX_VALUE;
     }
 }
@@ -1,5 +1,9 @@
 package planner.utils.objfunctions;
 
+import java.nio.DoubleBuffer;
+import planner.utils.Dataset;
+import planner.utils.Partition;
+
 /**
  * LinearFunction is a class implementing a linear scheme for estimate a value
  * from a candidate solution and a set of input variables.
@@ -9,7 +13,13 @@ package planner.utils.objfunctions;
  * @since 1.0
  */
 public class LinearFunction implements ObjectiveFunction {
-    
+
+    /**
+     * Number of instances processed together when estimating a partition, small
+     * enough for the values of a block to stay in cache.
+     */
+    private static final int BLOCK_SIZE = 512;
+
     /**
      * Computes an estimation for a candidate solution and a set of input
      * variables with a linear scheme, multiplying each gene by each input
@@ -44,4 +54,83 @@ public class LinearFunction implements ObjectiveFunction {
         return score;
     }
 
+    /**
+     * Computes the estimations of one candidate solution for every instance of
+     * a partition, see getPopulationEstimations.
+     *
+     * @param genotype candidate solution.
+     * @param partition instances needed for the estimations.
+     * @return the estimations, in the order of the partition.
+     */
+    @Override
+    public double[] getInstancesEstimations(double[] genotype, Partition partition) {
+        return getPopulationEstimations(new double[][]{genotype}, partition)[0];
+    }
+
+    /**
+     * Computes the estimations of several candidate solutions for every
+     * instance of a partition as the product of the instances and the
+     * candidate solutions. The instances are processed in blocks whose values
+     * are gathered by attribute once and then used by every candidate
+     * solution, adding one attribute at a time to the estimations of the
+     * block. The terms are added in the same order as compute, so the
+     * estimations are exactly the same.
+     *
+     * @param genotypes candidate solutions.
+     * @param partition instances needed for the estimations.
+     * @return the estimations, one array by candidate solution in the order of
+     * the partition.
+     */
+    @Override
+    public double[][] getPopulationEstimations(double[][] genotypes, Partition partition) {
+        Dataset d = partition.getDataset();
+        int numInstances = partition.size();
+        int numAttributes = d.getNumAttributes();
+        double[][] estimations = new double[genotypes.length][numInstances];
+        double[][] block = new double[numAttributes][BLOCK_SIZE];
+        int[] indices = new int[BLOCK_SIZE];
+
+        for (int from = 0; from < numInstances; from += BLOCK_SIZE) {
+            int size = Math.min(BLOCK_SIZE, numInstances - from);
+            for (int i = 0; i < size; i++) {
+                indices[i] = partition.getIndex(from + i);
+            }
+            for (int j = 0; j < numAttributes; j++) {
+                DoubleBuffer column = d.getColumn(j);
+                double[] values = block[j];
+                for (int i = 0; i < size; i++) {
+                    values[i] = column.get(indices[i]);
+                }
+            }
+
+            for (int g = 0; g < genotypes.length; g++) {
+                double[] genotype = genotypes[g];
+                double[] score = estimations[g];
+                for (int j = 0; j < numAttributes; j++) {
+                    double[] values = block[j];
+                    if (j < genotype.length) {
+                        double gene = genotype[j];
+                        for (int i = 0; i < size; i++) {
+                            score[from + i] += gene * values[i];
+                        }
+                    } else {
+                        // Input variables without gene are added.
+                        for (int i = 0; i < size; i++) {
+                            score[from + i] += values[i];
+                        }
+                    }
+                }
+                // Genes without input variable are added.
+                for (int j = numAttributes; j < genotype.length; j++) {
+                    double gene = genotype[j];
+                    for (int i = 0; i < size; i++) {
+                        score[from + i] += gene;
+                    }
+                }
+            }
+        }
+
+        return estimations;
+    }
+
 }
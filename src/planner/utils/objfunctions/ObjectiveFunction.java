@@ -1,7 +1,7 @@
 package planner.utils.objfunctions;
 
-import java.util.ArrayList;
-import planner.utils.Dataset;
+import java.util.List;
+import planner.utils.Partition;
 
 /**
  * ObjectiveFunction is a class implementing the basic scheme of a function with
@@ -23,7 +23,7 @@ public interface ObjectiveFunction {
      */
     public abstract double compute(double[] genotype, double[] input);
     
-    public default double[] getInstancesEstimations(double[] genotype, ArrayList<double[]> instances) {
+    public default double[] getInstancesEstimations(double[] genotype, List<double[]> instances) {
         int numInstances = instances.size();
         double[] estimations = new double[numInstances];
         for (int i = 0; i < numInstances; i++) {
@@ -32,4 +32,42 @@ public interface ObjectiveFunction {
         
         return estimations;
     }
+
+    /**
+     * Computes an estimation for each instance of a partition. The instances
+     * are copied one by one into the same array, so the partition is not
+     * materialized.
+     *
+     * @param genotype candidate solution.
+     * @param partition instances needed for the estimations.
+     * @return the estimations, in the order of the partition.
+     */
+    public default double[] getInstancesEstimations(double[] genotype, Partition partition) {
+        int numInstances = partition.size();
+        double[] estimations = new double[numInstances];
+        double[] row = new double[partition.getDataset().getNumAttributes()];
+        for (int i = 0; i < numInstances; i++) {
+            estimations[i] = compute(genotype, partition.getInstance(i, row));
+        }
+
+        return estimations;
+    }
+
+    /**
+     * Computes an estimation for each pair of candidate solution and instance
+     * of a partition at once.
+     *
+     * @param genotypes candidate solutions.
+     * @param partition instances needed for the estimations.
+     * @return the estimations, one array by candidate solution in the order of
+     * the partition.
+     */
+    public default double[][] getPopulationEstimations(double[][] genotypes, Partition partition) {
+        double[][] estimations = new double[genotypes.length][];
+        for (int g = 0; g < genotypes.length; g++) {
+            estimations[g] = getInstancesEstimations(genotypes[g], partition);
+        }
+
+        return estimations;
+    }
 }
@@ -1,10 +1,22 @@
 package planner.utils.objfunctions;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import planner.utils.Partition;
+
 /**
  * RadialVelocityFunction is a class implementing the estimation of the radial
  * velocity of a binary stellar system from a candidate solution and a set of
  * input variables.
  *
+ * The function keeps no state between estimations, so the same instance can be
+ * used by several threads. Kepler's equation is solved with Halley's method;
+ * when all the instances of a partition are estimated at once they are solved
+ * in order of mean anomaly, starting each one from the solution of the
+ * previous one.
+ *
  * @author <a href="mailto:avr00036@red.ujaen.es">Alicia Vazquez Ramos</a>
  * @version 1.0
  * @since 1.0
@@ -42,19 +54,29 @@ public class RadialVelocityFunction implements ObjectiveFunction {
     private static final int PHASE_INDEX = 0;
 
     /**
-     * True anomaly.
+     * Tolerance required for computing true anomaly.
      */
-    private double V; //< True anomaly
+    private static final double TOLERANCE = 1E-12;
 
     /**
-     * Phase for the radial velocity.
+     * Maximum number of iterations for computing true anomaly.
      */
-    private double PHASE;
+    private static final int MAX_ITERATIONS = 32;
 
     /**
-     * Tolerance required for computing true anomaly.
+     * Maximum absolute value of the excentricity used for solving Kepler's
+     * equation, which has no elliptic solution from 1 on.
+     */
+    private static final double MAX_EXCENTRICITY = 1.0 - 1E-9;
+
+    /**
+     * Mean anomalies of the instances of each partition already estimated,
+     * sorted, since they do not depend on the candidate solution. Each thread
+     * keeps its own ones, so the threads evaluating in parallel never wait for
+     * each other.
      */
-    private final double TOLERANCE = 10E-8;
+    private static final ThreadLocal<Map<Partition, SortedAnomalies>> ANOMALIES
+            = ThreadLocal.withInitial(WeakHashMap::new);
 
     /**
      * Computes the radial velocity estimation for a binary stellar system given
@@ -66,30 +88,168 @@ public class RadialVelocityFunction implements ObjectiveFunction {
      */
     @Override
     public double compute(double[] genotype, double[] input) {
-        double radialVelocity;
-        PHASE = input[PHASE_INDEX];
-        computeTrueAnomaly(genotype);
-        radialVelocity = genotype[GAMMA] + genotype[K] * Math.cos(genotype[OMEGA] + V) + genotype[EXCENTRICITY] * Math.cos(genotype[OMEGA]);
+        double e = clampExcentricity(genotype[EXCENTRICITY]);
+        double M = meanAnomaly(input[PHASE_INDEX]);
+        double E = solveKepler(M, e, startingGuess(M, e));
+        return radialVelocity(genotype, e, Math.cos(genotype[OMEGA]), Math.sin(genotype[OMEGA]), E);
+    }
 
-        return radialVelocity;
+    @Override
+    public double[] getInstancesEstimations(double[] genotype, List<double[]> instances) {
+        double[] M = new double[instances.size()];
+        for (int i = 0; i < M.length; i++) {
+            M[i] = meanAnomaly(instances.get(i)[PHASE_INDEX]);
+        }
+        return estimate(genotype, new SortedAnomalies(M));
+    }
+
+    @Override
+    public double[] getInstancesEstimations(double[] genotype, Partition partition) {
+        Map<Partition, SortedAnomalies> cache = ANOMALIES.get();
+        SortedAnomalies anomalies = cache.get(partition);
+        if (anomalies == null) {
+            double[] M = new double[partition.size()];
+            for (int i = 0; i < M.length; i++) {
+                M[i] = meanAnomaly(partition.getDataset().getData(partition.getIndex(i), PHASE_INDEX));
+            }
+            anomalies = new SortedAnomalies(M);
+            cache.put(partition, anomalies);
+        }
+        return estimate(genotype, anomalies);
     }
 
     /**
-     * Auxiliar function for computing true anomaly.
+     * Computes the radial velocity estimations of a set of instances, solving
+     * them in order of mean anomaly so each one starts from the excentric
+     * anomaly of the previous one.
      *
      * @param genotype candidate solution.
+     * @param anomalies sorted mean anomalies of the instances.
+     * @return the estimations, in the original order of the instances.
+     */
+    private double[] estimate(double[] genotype, SortedAnomalies anomalies) {
+        double[] estimations = new double[anomalies.M.length];
+        double e = clampExcentricity(genotype[EXCENTRICITY]);
+        double cosOmega = Math.cos(genotype[OMEGA]);
+        double sinOmega = Math.sin(genotype[OMEGA]);
+        double prevM = 0.0;
+        double prevE = 0.0;
+        for (int s = 0; s < estimations.length; s++) {
+            double M = anomalies.M[s];
+            double guess;
+            if (s == 0) {
+                guess = startingGuess(M, e);
+            } else {
+                // First order step from the previous solution.
+                guess = prevE + (M - prevM) / (1.0 - e * Math.cos(prevE));
+                // The solution is at most |e| away from the mean anomaly.
+                guess = Math.max(M - Math.abs(e), Math.min(M + Math.abs(e), guess));
+            }
+            double E = solveKepler(M, e, guess);
+            estimations[anomalies.positions[s]] = radialVelocity(genotype, e, cosOmega, sinOmega, E);
+            prevM = M;
+            prevE = E;
+        }
+        return estimations;
+    }
+
+    /**
+     * Computes the radial velocity from the excentric anomaly, getting the
+     * true anomaly V from the cosine and sine of the excentric anomaly instead
+     * of from its tangent.
+     *
+     * @param genotype candidate solution.
+     * @param e excentricity used for solving Kepler's equation.
+     * @param cosOmega cosine of OMEGA.
+     * @param sinOmega sine of OMEGA.
+     * @param E excentric anomaly.
+     * @return the estimation.
+     */
+    private static double radialVelocity(double[] genotype, double e, double cosOmega, double sinOmega, double E) {
+        double cosE = Math.cos(E);
+        double sinE = Math.sin(E);
+        double den = 1.0 - e * cosE;
+        double cosV = (cosE - e) / den;
+        double sinV = Math.sqrt(1.0 - e * e) * sinE / den;
+        // cos(OMEGA + V)
+        double cosOmegaV = cosOmega * cosV - sinOmega * sinV;
+        return genotype[GAMMA] + genotype[K] * cosOmegaV + genotype[EXCENTRICITY] * cosOmega;
+    }
+
+    /**
+     * Computes the mean anomaly of a phase reduced to [-PI, PI), where Kepler's
+     * equation converges faster. The periaster phase is a whole number of
+     * periods so it does not change the reduced value.
+     *
+     * @param phase phase for the radial velocity.
+     * @return the mean anomaly.
+     */
+    private static double meanAnomaly(double phase) {
+        double p = phase - PERIASTER_PHASE;
+        p -= Math.floor(p + 0.5);
+        return 2 * Math.PI * p;
+    }
+
+    private static double clampExcentricity(double e) {
+        return Math.max(-MAX_EXCENTRICITY, Math.min(MAX_EXCENTRICITY, e));
+    }
+
+    /**
+     * Starting guess for the excentric anomaly, close enough to the solution
+     * for any excentricity.
+     *
+     * @param M mean anomaly in [-PI, PI).
+     * @param e excentricity.
+     * @return initial excentric anomaly.
      */
-    private void computeTrueAnomaly(double[] genotype) {
-        double M; // Mean anomaly
-        double E; // Excentric anomaly
-        double Eaux; // Auxiliar excentric anomaly
-        M = 2 * Math.PI * (PHASE - PERIASTER_PHASE);
-        E = M;
-        Eaux = 0.0;
-        while (Math.abs(E - Eaux) > TOLERANCE) {
-            Eaux = E;
-            E = M + genotype[EXCENTRICITY] * Math.sin(Eaux);
+    private static double startingGuess(double M, double e) {
+        return M + 0.85 * e * Math.signum(Math.sin(M));
+    }
+
+    /**
+     * Solves Kepler's equation, M = E - e * sin(E), with Halley's method.
+     *
+     * @param M mean anomaly.
+     * @param e excentricity, in (-1, 1).
+     * @param E initial excentric anomaly.
+     * @return excentric anomaly.
+     */
+    private static double solveKepler(double M, double e, double E) {
+        for (int it = 0; it < MAX_ITERATIONS; it++) {
+            double eSinE = e * Math.sin(E);
+            double eCosE = e * Math.cos(E);
+            double f = E - eSinE - M;
+            double df = 1.0 - eCosE;
+            double delta = f / (df - 0.5 * f * eSinE / df);
+            E -= delta;
+            if (Math.abs(delta) <= TOLERANCE) {
+                break;
+            }
+        }
+        return E;
+    }
+
+    /**
+     * Mean anomalies of a set of instances sorted in increasing order, with
+     * the position of each one in the set.
+     */
+    private static class SortedAnomalies {
+
+        private final double[] M;
+        private final int[] positions;
+
+        private SortedAnomalies(double[] anomalies) {
+            Integer[] order = new Integer[anomalies.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(anomalies[a], anomalies[b]));
+            M = new double[anomalies.length];
+            positions = new int[anomalies.length];
+            for (int s = 0; s < order.length; s++) {
+                positions[s] = order[s];
+                M[s] = anomalies[order[s]];
+            }
         }
-        V = 2.0 * Math.atan(Math.sqrt((1 + genotype[EXCENTRICITY]) / (1 - genotype[EXCENTRICITY])) * Math.tan(E / 2.0));
     }
 }